@@ -0,0 +1,71 @@
+package org.simple.booking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.BookingBatchResult;
+import org.simple.booking.service.service.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers the same free timeslots one by one and as a single batch, every invocation starts from a freshly filled store.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BookingBatchBenchmark {
+
+    private static final int FRAME_DAYS = 365;
+
+    @Param({"100", "2000"})
+    private int batchSize;
+    @Param({"2000"})
+    private int storeSize;
+
+    private BookingServiceContext context;
+    private BookingService bookingService;
+    private List<Booking> batch;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        context = new BookingServiceContext(FRAME_DAYS);
+        bookingService = context.getBean(BookingService.class);
+        final List<Booking> freeSlots = context.fill(storeSize);
+        batch = freeSlots.subList(0, Math.min(batchSize, freeSlots.size()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void registerOneByOne(final Blackhole blackhole) {
+        for (final Booking booking : batch) {
+            blackhole.consume(bookingService.registerBooking(booking));
+        }
+    }
+
+    @Benchmark
+    public BookingBatchResult registerBatch() {
+        return bookingService.registerBookings(batch, true);
+    }
+
+}
@@ -0,0 +1,124 @@
+package org.simple.booking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.store.BookingIndex;
+import org.simple.booking.service.service.store.ClientDictionary;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
+
+/**
+ * Compares the lookups of the BookingIndex with the full TreeSet scans the services used before.
+ * Half an hour long bookings are stored every hour, the queried instants are random within the stored range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingIndexBenchmark {
+
+    private static final LocalDateTime FIRST_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    private int bookingCount;
+
+    private BookingIndex bookingIndex;
+    private Set<Booking> treeSet;
+    private LocalDateTime[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookingIndex = new BookingIndex(DEFAULT_RESOURCE, new ClientDictionary());
+        treeSet = new TreeSet<>(Comparator.comparing(Booking::getStart));
+        for (int i = 0; i < bookingCount; i++) {
+            final Booking booking = Booking.builder()
+                                           .id(new UUID(0, i + 1).toString())
+                                           .client("client")
+                                           .start(FIRST_START.plusHours(i))
+                                           .end(FIRST_START.plusHours(i).plusMinutes(30))
+                                           .build();
+            bookingIndex.add(booking);
+            treeSet.add(booking);
+        }
+        final Random random = new Random(42);
+        queries = new LocalDateTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = FIRST_START.plusMinutes(random.nextInt(bookingCount * 60));
+        }
+    }
+
+    @Benchmark
+    public Optional<Booking> overlappingIndex() {
+        final LocalDateTime start = nextQuery();
+        return bookingIndex.findOverlapping(start, start.plusMinutes(30));
+    }
+
+    @Benchmark
+    public Optional<Booking> overlappingTreeSetScan() {
+        final LocalDateTime start = nextQuery();
+        final LocalDateTime end = start.plusMinutes(30);
+        return treeSet.stream()
+                      .filter(b -> start.isBefore(b.getEnd()) && b.getStart().isBefore(end))
+                      .findFirst();
+    }
+
+    @Benchmark
+    public Optional<Booking> containingIndex() {
+        return bookingIndex.findContaining(nextQuery());
+    }
+
+    @Benchmark
+    public Optional<Booking> containingTreeSetScan() {
+        final LocalDateTime time = nextQuery();
+        return treeSet.stream()
+                      .filter(b -> (b.getStart().isBefore(time) || b.getStart().equals(time)) && b.getEnd().isAfter(time))
+                      .findFirst();
+    }
+
+    @Benchmark
+    public List<Booking> withinIndex() {
+        final LocalDateTime start = nextQuery();
+        return bookingIndex.findWithin(start, start.plusDays(1))
+                           .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Booking> withinTreeSetScan() {
+        final LocalDateTime start = nextQuery();
+        final LocalDateTime end = start.plusDays(1);
+        return treeSet.stream()
+                      .filter(b -> (b.getStart().isAfter(start) || b.getStart().equals(start)) && b.getEnd().isBefore(end))
+                      .collect(Collectors.toList());
+    }
+
+    private LocalDateTime nextQuery() {
+        return queries[next++ & (QUERIES - 1)];
+    }
+
+}
@@ -0,0 +1,186 @@
+package org.simple.booking.benchmark;
+
+import org.simple.booking.service.Application;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the request execution modes of the service over HTTP. Every step opens more slow clients,
+ * which send the headers of a booking request and then trickle its body, and meanwhile fast clients
+ * measure the latency of free timeslot queries. The max concurrency of a mode is the largest number
+ * of slow clients at which the fast queries still answer within the limit.
+ * Usage: BookingLoadTest [platform|virtual]..., the virtual mode needs Java 21.
+ */
+public final class BookingLoadTest {
+
+    private static final int[] SLOW_CLIENTS = {0, 100, 200, 400, 800, 1600};
+    private static final int FAST_CLIENTS = 8;
+    private static final Duration STEP_DURATION = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(2);
+    private static final long LATENCY_LIMIT_MILLIS = 500;
+    private static final long TRICKLE_INTERVAL_MILLIS = 500;
+    private static final String CONTEXT_PATH = "/booking-backend-service/v1";
+
+    private BookingLoadTest() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final List<String> modes = Arrays.stream(args).filter(arg -> !arg.isBlank()).toList();
+        final List<String> defaultModes = Runtime.version().feature() >= 21 ? List.of("platform", "virtual") : List.of("platform");
+        for (final String mode : modes.isEmpty() ? defaultModes : modes) {
+            run(mode);
+        }
+    }
+
+    private static void run(final String mode) throws Exception {
+        System.out.printf("%n%-8s %12s %10s %10s %10s %10s%n", "mode", "slowClients", "requests", "p50[ms]", "p99[ms]", "timeouts");
+        int maxConcurrency = -1;
+        try (ConfigurableApplicationContext context = start("virtual".equals(mode))) {
+            final int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            // Warms up the request path, so the first step is not measured against the interpreter
+            measure(port);
+            for (final int slowClients : SLOW_CLIENTS) {
+                final StepResult result = step(port, slowClients);
+                System.out.printf("%-8s %12d %10d %10.1f %10.1f %10d%n", mode, slowClients, result.requests(),
+                                  result.percentileMillis(0.5), result.percentileMillis(0.99), result.timeouts());
+                if (result.timeouts() > 0 || result.percentileMillis(0.99) > LATENCY_LIMIT_MILLIS) {
+                    break;
+                }
+                maxConcurrency = slowClients;
+            }
+        }
+        System.out.printf("%s: max concurrency %d slow clients with p99 under %d ms%n", mode, maxConcurrency, LATENCY_LIMIT_MILLIS);
+    }
+
+    private static ConfigurableApplicationContext start(final boolean virtualThreads) {
+        return new SpringApplicationBuilder(Application.class)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run("--server.port=0",
+                     "--booking.virtual-threads.enabled=" + virtualThreads,
+                     "--logging.level.root=WARN");
+    }
+
+    private static StepResult step(final int port, final int slowClients) throws Exception {
+        final List<Socket> sockets = new ArrayList<>();
+        final ScheduledExecutorService trickler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            for (int i = 0; i < slowClients; i++) {
+                sockets.add(openSlowClient(port));
+            }
+            trickler.scheduleAtFixedRate(() -> trickle(sockets), TRICKLE_INTERVAL_MILLIS, TRICKLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            return measure(port);
+        } finally {
+            trickler.shutdownNow();
+            for (final Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    /**
+     * Sends the headers of a booking request announcing a large body, so the request is dispatched and its thread waits for the body
+     */
+    private static Socket openSlowClient(final int port) throws IOException {
+        final Socket socket = new Socket();
+        socket.connect(new InetSocketAddress("localhost", port));
+        final String headers = "POST " + CONTEXT_PATH + "/book HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: 100000\r\n"
+                + "\r\n"
+                + "{";
+        socket.getOutputStream().write(headers.getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+        return socket;
+    }
+
+    private static void trickle(final List<Socket> sockets) {
+        for (final Socket socket : sockets) {
+            try {
+                final OutputStream output = socket.getOutputStream();
+                output.write(' ');
+                output.flush();
+            } catch (final IOException ignored) {
+                // The server gave up on the request, the client just stays silent
+            }
+        }
+    }
+
+    private static StepResult measure(final int port) throws InterruptedException {
+        final HttpClient client = HttpClient.newBuilder()
+                                            .version(HttpClient.Version.HTTP_1_1)
+                                            .connectTimeout(REQUEST_TIMEOUT)
+                                            .build();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + CONTEXT_PATH + "/free?limit=10"))
+                                               .timeout(REQUEST_TIMEOUT)
+                                               .build();
+        final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        final AtomicInteger timeouts = new AtomicInteger();
+        final long deadline = System.nanoTime() + STEP_DURATION.toNanos();
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < FAST_CLIENTS; i++) {
+            final Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    final long start = System.nanoTime();
+                    try {
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies.add(System.nanoTime() - start);
+                    } catch (final IOException exception) {
+                        // Timed out or refused
+                        timeouts.incrementAndGet();
+                    } catch (final InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new StepResult(sorted, timeouts.get());
+    }
+
+    private record StepResult(long[] sortedLatencies, int timeouts) {
+
+        int requests() {
+            return sortedLatencies.length;
+        }
+
+        double percentileMillis(final double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            final int index = Math.min(sortedLatencies.length - 1, (int) Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+
+    }
+
+}
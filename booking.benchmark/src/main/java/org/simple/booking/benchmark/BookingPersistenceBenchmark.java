@@ -0,0 +1,86 @@
+package org.simple.booking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.BookingService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Registration throughput with the write-ahead log switched on, the threads share the fsync of a commit group.
+ * Every timeslot of the frame is booked once per resource, a new resource is started when they run out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class BookingPersistenceBenchmark {
+
+    private static final int FRAME_DAYS = 365;
+
+    @Param({"ALWAYS", "INTERVAL", "NONE"})
+    private String fsync;
+
+    private Path directory;
+    private BookingServiceContext context;
+    private BookingService bookingService;
+    private List<Booking> slots;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("booking-wal");
+        context = new BookingServiceContext(FRAME_DAYS,
+                                            "booking.persistence.enabled=true",
+                                            "booking.persistence.directory=" + directory,
+                                            "booking.persistence.fsync=" + fsync);
+        bookingService = context.getBean(BookingService.class);
+        slots = context.getBookableSlots();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Booking registerBooking() {
+        final int index = next.getAndIncrement();
+        final Booking slot = slots.get(index % slots.size());
+        return bookingService.registerBooking(Booking.builder()
+                                                     .client(slot.getClient())
+                                                     .start(slot.getStart())
+                                                     .end(slot.getEnd())
+                                                     .resource("resource-" + index / slots.size())
+                                                     .build());
+    }
+
+}
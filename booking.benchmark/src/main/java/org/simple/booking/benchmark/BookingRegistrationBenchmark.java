@@ -0,0 +1,64 @@
+package org.simple.booking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registration changes the store, so every iteration starts from a freshly filled one
+ * and books a batch of distinct free timeslots in single shot mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = BookingRegistrationBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = BookingRegistrationBenchmark.BATCH_SIZE)
+@Fork(1)
+public class BookingRegistrationBenchmark {
+
+    static final int BATCH_SIZE = 100;
+
+    @Param({"30", "365"})
+    private int frameDays;
+    @Param({"100", "2000"})
+    private int storeSize;
+
+    private BookingServiceContext context;
+    private BookingService bookingService;
+    private List<Booking> freeSlots;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        context = new BookingServiceContext(frameDays);
+        bookingService = context.getBean(BookingService.class);
+        freeSlots = context.fill(storeSize);
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Booking registerBooking() {
+        return bookingService.registerBooking(freeSlots.get(next++));
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.simple.booking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.ValidationResult;
+import org.simple.booking.service.domain.exception.BookingBadRequestException;
+import org.simple.booking.service.service.BookingValidator;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Validation of a workload in which 9 of 10 booking requests are rejected, as sent by abusive or buggy clients.
+ * Every rule is broken by some of the requests and 2 of 10 overlap a stored booking, so they pass the cheap rules
+ * and are only rejected by the lookup in the store.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingRejectionBenchmark {
+
+    private static final int REQUESTS = 1000;
+
+    @Param({"30", "365"})
+    private int frameDays;
+    @Param({"2000"})
+    private int storeSize;
+
+    private BookingServiceContext context;
+    private BookingValidator bookingValidator;
+    private List<Booking> requests;
+    private ValidationResult result;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BookingServiceContext(frameDays);
+        bookingValidator = context.getBean(BookingValidator.class);
+        final List<Booking> freeSlots = context.fill(storeSize);
+        final Set<LocalDateTime> freeStarts = freeSlots.stream().map(Booking::getStart).collect(Collectors.toSet());
+        final List<Booking> bookedSlots = context.getBookableSlots().stream()
+                                                 .filter(slot -> !freeStarts.contains(slot.getStart()))
+                                                 .toList();
+        result = new ValidationResult();
+        requests = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(request(i, freeSlots.get(i / 10 % freeSlots.size()), bookedSlots.get(i / 10 % bookedSlots.size())));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object validateBooking() {
+        final Booking booking = requests.get(next++ % REQUESTS);
+        if (bookingValidator.validateBooking(booking, result.reset()).isValid()) {
+            return booking;
+        }
+        // The response body, as rendered by the exception mapper
+        return result.getMessage();
+    }
+
+    /**
+     * The rejections leave as exceptions, the way a single booking request reaches the exception mapper
+     */
+    @Benchmark
+    public Object validateBookingThrowing() {
+        final Booking booking = requests.get(next++ % REQUESTS);
+        try {
+            bookingValidator.validateBooking(booking);
+            return booking;
+        } catch (final BookingBadRequestException exception) {
+            // The response body, as rendered by the exception mapper
+            return exception.getMessage();
+        }
+    }
+
+    private static Booking request(final int index, final Booking freeSlot, final Booking bookedSlot) {
+        final LocalDateTime start = freeSlot.getStart();
+        final LocalDate monday = BookingServiceContext.FRAME_START;
+        return switch (index % 10) {
+            case 0 -> freeSlot;
+            case 1, 9 -> bookedSlot;
+            case 2 -> booking(monday.plusDays(5).atTime(10, 0), 30);
+            case 3 -> booking(start.toLocalDate().atTime(8, 0), 30);
+            case 4 -> booking(monday.minusWeeks(1).atTime(10, 0), 30);
+            case 5 -> booking(start.plusMinutes(15), 30);
+            case 6 -> booking(start, 15);
+            case 7 -> booking(start.toLocalDate().atTime(9, 0), 240);
+            default -> booking(start.toLocalDate().atTime(9, 0), 45);
+        };
+    }
+
+    private static Booking booking(final LocalDateTime start, final int minutes) {
+        return Booking.builder()
+                      .client(BookingServiceContext.client(0))
+                      .start(start)
+                      .end(start.plusMinutes(minutes))
+                      .build();
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.simple.booking.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.ValidationResult;
+import org.simple.booking.service.service.BookingValidator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The request path of a booking without the store changes: the JSON body read by the configured ObjectMapper,
+ * validated against a filled store and written back as the response. Run with the gc profiler,
+ * the default of the benchmark profile, the gc.alloc.rate.norm result is the allocation per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingRequestBenchmark {
+
+    private static final int REQUESTS = 1000;
+
+    private BookingServiceContext context;
+    private ObjectMapper objectMapper;
+    private BookingValidator bookingValidator;
+    private byte[][] requests;
+    private ValidationResult result;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new BookingServiceContext(30);
+        objectMapper = context.getBean(ObjectMapper.class);
+        bookingValidator = context.getBean(BookingValidator.class);
+        final List<Booking> freeSlots = context.fill(200);
+        requests = new byte[REQUESTS][];
+        for (int i = 0; i < REQUESTS; i++) {
+            requests[i] = objectMapper.writeValueAsBytes(freeSlots.get(i % freeSlots.size()));
+        }
+        result = new ValidationResult();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Booking readBooking() throws IOException {
+        return objectMapper.readValue(requests[next++ % REQUESTS], Booking.class);
+    }
+
+    @Benchmark
+    public byte[] handleBooking() throws IOException {
+        final Booking booking = objectMapper.readValue(requests[next++ % REQUESTS], Booking.class);
+        bookingValidator.validateBooking(booking, result.reset()).throwIfRejected();
+        return objectMapper.writeValueAsBytes(booking);
+    }
+
+}
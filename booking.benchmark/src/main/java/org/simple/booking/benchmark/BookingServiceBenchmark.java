@@ -0,0 +1,91 @@
+package org.simple.booking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.BookingService;
+import org.simple.booking.service.service.BookingValidator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
+
+/**
+ * Read paths and validation of the booking service on a pre-filled store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+
+    @Param({"30", "365"})
+    private int frameDays;
+    @Param({"100", "2000"})
+    private int storeSize;
+    // 0 disables the free timeslot cache
+    @Param({"0", "1024"})
+    private int freeSlotCacheDays;
+
+    private BookingServiceContext context;
+    private BookingService bookingService;
+    private BookingValidator bookingValidator;
+    private List<Booking> freeSlots;
+    private LocalDateTime timeFrameStart;
+    private LocalDateTime timeFrameEnd;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BookingServiceContext(frameDays, "bookable.free-slot-cache.max-days=" + freeSlotCacheDays);
+        bookingService = context.getBean(BookingService.class);
+        bookingValidator = context.getBean(BookingValidator.class);
+        freeSlots = context.fill(storeSize);
+        // One week in the middle of the bookable frame
+        timeFrameStart = BookingServiceContext.FRAME_START.plusDays(frameDays / 2).atStartOfDay();
+        timeFrameEnd = timeFrameStart.plusDays(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Booking validateBooking() {
+        final Booking booking = freeSlots.get(next++ % freeSlots.size());
+        bookingValidator.validateBooking(booking);
+        return booking;
+    }
+
+    @Benchmark
+    public List<Booking> getFreeTimeSlots() {
+        return bookingService.getFreeTimeSlots(DEFAULT_RESOURCE, null, null);
+    }
+
+    @Benchmark
+    public List<Booking> getFreeTimeSlotsByTimeFrame() {
+        return bookingService.getFreeTimeSlotsByTimeFrame(DEFAULT_RESOURCE, timeFrameStart, timeFrameEnd);
+    }
+
+    @Benchmark
+    public List<Booking> getBookingsByClient() {
+        return bookingService.getBookingsByClient(DEFAULT_RESOURCE, BookingServiceContext.client(next++), null, null, null, null);
+    }
+
+}
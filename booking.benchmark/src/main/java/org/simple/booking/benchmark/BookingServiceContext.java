@@ -0,0 +1,116 @@
+package org.simple.booking.benchmark;
+
+import org.simple.booking.service.Application;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.TimeSlotService;
+import org.simple.booking.service.service.store.ResourceCalendar;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
+
+/**
+ * Starts the booking service without the web layer, so the benchmarks call the same beans as the controller.
+ * The bookable frame starts on a Monday and the default working hours and timeslot lengths are used.
+ */
+class BookingServiceContext implements AutoCloseable {
+
+    static final LocalDate FRAME_START = LocalDate.of(2024, 1, 1);
+    static final int CLIENTS = 50;
+
+    private static final LocalTime WORKDAY_START = LocalTime.of(9, 0);
+    private static final LocalTime WORKDAY_END = LocalTime.of(17, 0);
+    private static final int SLOT_MINUTES = 30;
+
+    private final ConfigurableApplicationContext context;
+    private final int frameDays;
+
+    BookingServiceContext(final int frameDays, final String... properties) {
+        this.frameDays = frameDays;
+        final List<String> args = new ArrayList<>(List.of("--bookable.frame.start=" + FRAME_START,
+                                                          "--bookable.frame.end=" + FRAME_START.plusDays(frameDays),
+                                                          "--logging.level.root=WARN"));
+        for (final String property : properties) {
+            args.add("--" + property);
+        }
+        this.context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+    }
+
+    <T> T getBean(final Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Stores every n-th bookable timeslot of the frame directly, without validation, and returns the ones left free.
+     * The store size is capped at half of the frame capacity, so there are always free timeslots left to book.
+     */
+    List<Booking> fill(final int storeSize) {
+        final List<Booking> slots = getBookableSlots();
+        final int stride = Math.max(2, slots.size() / Math.max(1, storeSize));
+        final ResourceCalendar calendar = getBean(TimeSlotService.class).getCalendar(DEFAULT_RESOURCE);
+        final List<Booking> freeSlots = new ArrayList<>();
+        int stored = 0;
+        for (int i = 0; i < slots.size(); i++) {
+            if (i % stride == 0 && stored < storeSize) {
+                calendar.addBooking(withId(slots.get(i)));
+                stored++;
+            } else {
+                freeSlots.add(slots.get(i));
+            }
+        }
+
+        return freeSlots;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    static String client(final int index) {
+        return "client-" + index % CLIENTS;
+    }
+
+    List<Booking> getBookableSlots() {
+        final List<Booking> slots = new ArrayList<>();
+        for (LocalDate day = FRAME_START; !day.isAfter(FRAME_START.plusDays(frameDays)); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            for (LocalDateTime start = day.atTime(WORKDAY_START); start.isBefore(day.atTime(WORKDAY_END)); start = start.plusMinutes(SLOT_MINUTES)) {
+                slots.add(Booking.builder()
+                                 .client(client(slots.size()))
+                                 .start(start)
+                                 .end(start.plusMinutes(SLOT_MINUTES))
+                                 .build());
+            }
+        }
+
+        return slots;
+    }
+
+    private Booking withId(final Booking booking) {
+        return Booking.builder()
+                      .id(UUID.randomUUID().toString())
+                      .client(booking.getClient())
+                      .start(booking.getStart())
+                      .end(booking.getEnd())
+                      .resource(DEFAULT_RESOURCE)
+                      .build();
+    }
+
+}
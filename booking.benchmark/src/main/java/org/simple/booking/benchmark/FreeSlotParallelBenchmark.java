@@ -0,0 +1,63 @@
+package org.simple.booking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
+
+/**
+ * The free timeslots of the whole frame computed by the free timeslot pool of 1 to 8 threads, with the cache disabled,
+ * so every call computes every day. The speedup of a core count is the score of a single thread divided by its score,
+ * the counts above the number of cores of the machine only measure the overhead of the tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FreeSlotParallelBenchmark {
+
+    @Param({"365", "1825"})
+    private int frameDays;
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private BookingServiceContext context;
+    private BookingService bookingService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BookingServiceContext(frameDays, "bookable.free-slot-cache.max-days=0",
+                                            "bookable.free-slot-parallelism=" + parallelism);
+        bookingService = context.getBean(BookingService.class);
+        context.fill(frameDays * 4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Booking> getFreeTimeSlots() {
+        return bookingService.getFreeTimeSlots(DEFAULT_RESOURCE, null, null);
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.simple.booking.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Serves the booking service endpoints on the WebFlux event loop. The services, the store and the persistence
+ * are the beans of booking.service, only its servlet controller and configuration are left out.
+ */
+@SpringBootApplication(scanBasePackages = {"org.simple.booking.reactive", "org.simple.booking.service.service"})
+public class ReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,167 @@
+package org.simple.booking.reactive.controller;
+
+import jakarta.validation.Valid;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.BookingBatchResult;
+import org.simple.booking.service.service.BookingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
+import static org.simple.booking.service.domain.Constants.IDEMPOTENCY_KEY;
+
+/**
+ * The /v1 endpoints of BookingController on the WebFlux event loop.
+ * The queries are lock-free reads of the in-memory store, the timeslots are pulled from the lazy streams
+ * of BookingService on demand, so a slow reader of a large timeframe holds neither a thread nor a list of the results.
+ * Every query answers a JSON array, or one JSON line per timeslot for application/x-ndjson.
+ * The registrations, cancellations and reschedules lock the calendar days and wait for the write-ahead log,
+ * so they run on the bounded elastic scheduler.
+ */
+@Validated
+@RestController
+@RequestMapping("/v1")
+public class ReactiveBookingController {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @PostMapping("/book")
+    public Mono<ResponseEntity<Booking>> registerBooking(@RequestBody @Valid final Booking booking,
+                                                         @RequestHeader(value = IDEMPOTENCY_KEY, required = false) final String idempotencyKey) {
+        return Mono.fromCallable(() -> bookingService.registerBooking(booking, idempotencyKey))
+                   .subscribeOn(Schedulers.boundedElastic())
+                   .map(persistedBooking -> ResponseEntity.created(URI.create(persistedBooking.getId()))
+                                                          .body(persistedBooking));
+    }
+
+    @PostMapping("/book/batch")
+    public Mono<ResponseEntity<BookingBatchResult>> registerBookings(@RequestBody final List<Booking> bookings,
+                                                                     @RequestParam(value = "atomic", defaultValue = "true") final boolean atomic) {
+        return Mono.fromCallable(() -> bookingService.registerBookings(bookings, atomic))
+                   .subscribeOn(Schedulers.boundedElastic())
+                   .map(result -> ResponseEntity.status(result.getCommitted() > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST)
+                                                .body(result));
+    }
+
+    @DeleteMapping("/book/{id}")
+    public Mono<Booking> cancelBooking(@PathVariable("id") final String id,
+                                       @RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource) {
+        return Mono.fromCallable(() -> bookingService.cancelBooking(resource, id))
+                   .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PatchMapping("/book/{id}")
+    public Mono<Booking> rescheduleBooking(@PathVariable("id") final String id,
+                                           @RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                           @RequestParam("start")
+                                           @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime start,
+                                           @RequestParam("end")
+                                           @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime end) {
+        return Mono.fromCallable(() -> bookingService.rescheduleBooking(resource, id, start, end))
+                   .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(value = "/booked", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Booking> getAllBookedTimeSlots(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                               @RequestParam(value = "after", required = false)
+                                               @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after,
+                                               @RequestParam(value = "limit", required = false) final Integer limit) {
+        return Flux.fromStream(() -> bookingService.streamBookedTimeSlots(resource, after, limit));
+    }
+
+    @GetMapping(value = "/booked/timeframe", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Booking> getBookedTimeSlotsByTimeFrame(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                       @RequestParam("start")
+                                                       @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime start,
+                                                       @RequestParam("end")
+                                                       @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime end) {
+        return Flux.fromStream(() -> bookingService.streamBookedTimeSlotsByTimeFrame(resource, start, end));
+    }
+
+    @GetMapping(value = "/free", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Booking> getAllFreeTimeSlots(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                             @RequestParam(value = "after", required = false)
+                                             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after,
+                                             @RequestParam(value = "limit", required = false) final Integer limit) {
+        return Flux.fromStream(() -> bookingService.streamFreeTimeSlots(resource, after, limit));
+    }
+
+    @GetMapping(value = "/free/timeframe", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Booking> getFreeTimeSlotsByTimeFrame(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                     @RequestParam("start")
+                                                     @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime start,
+                                                     @RequestParam("end")
+                                                     @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime end) {
+        return Flux.fromStream(() -> bookingService.streamFreeTimeSlotsByTimeFrame(resource, start, end));
+    }
+
+    @GetMapping("/free/next")
+    public Mono<Booking> findNextFreeTimeSlot(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                              @RequestParam("duration") final int duration,
+                                              @RequestParam(value = "after", required = false)
+                                              @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after) {
+        return Mono.fromSupplier(() -> bookingService.findNextFreeTimeSlot(resource, duration, after));
+    }
+
+    @GetMapping(value = "/free/candidates", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Booking> findFreeTimeSlots(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                           @RequestParam("duration") final int duration,
+                                           @RequestParam(value = "after", required = false)
+                                           @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after,
+                                           @RequestParam(value = "limit", defaultValue = "10") final Integer limit) {
+        return Flux.fromStream(() -> bookingService.findFreeTimeSlots(resource, duration, after, limit).stream());
+    }
+
+    @GetMapping(value = "/free/longest", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Booking> getLongestFreeTimeSlots(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                 @RequestParam("start")
+                                                 @DateTimeFormat(pattern = "yyyy-MM-dd") final LocalDate start,
+                                                 @RequestParam("end")
+                                                 @DateTimeFormat(pattern = "yyyy-MM-dd") final LocalDate end) {
+        return Flux.fromStream(() -> bookingService.getLongestFreeTimeSlots(resource, start, end).stream());
+    }
+
+    @GetMapping("/specific-time/{specifiedTime}")
+    public Mono<Booking> getTimeSlotByTime(@PathVariable("specifiedTime")
+                                           @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime specifiedTime,
+                                           @RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource) {
+        return Mono.fromSupplier(() -> bookingService.getTimeSlotByTime(resource, specifiedTime));
+    }
+
+    @GetMapping(value = "/client/{client}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Booking> getAllByUser(@PathVariable("client") final String client,
+                                      @RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                      @RequestParam(value = "start", required = false)
+                                      @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime start,
+                                      @RequestParam(value = "end", required = false)
+                                      @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime end,
+                                      @RequestParam(value = "after", required = false)
+                                      @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after,
+                                      @RequestParam(value = "limit", required = false) final Integer limit) {
+        return Flux.fromStream(() -> bookingService.streamBookingsByClient(resource, client, start, end, after, limit));
+    }
+
+}
@@ -0,0 +1,40 @@
+package org.simple.booking.reactive.exception;
+
+import org.simple.booking.service.domain.RejectionReason;
+import org.simple.booking.service.service.metrics.BookingMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.List;
+
+/**
+ * WebFlux reports an invalid request body with its own exception, the other exceptions are mapped by the ExceptionMapper of booking.service
+ */
+@RestControllerAdvice
+public class ReactiveExceptionMapper {
+
+    @Autowired
+    private BookingMetrics bookingMetrics;
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Object> mapWebExchangeBindException(final WebExchangeBindException exception) {
+        bookingMetrics.rejected(RejectionReason.INVALID_REQUEST);
+        return ResponseEntity.badRequest()
+                             .body(extractExceptionMsgList(exception));
+    }
+
+    private List<String> extractExceptionMsgList(final WebExchangeBindException exception) {
+        return exception.getBindingResult().getAllErrors().stream()
+                        .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                        .toList();
+    }
+}
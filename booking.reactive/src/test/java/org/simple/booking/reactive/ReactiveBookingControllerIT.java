@@ -0,0 +1,121 @@
+package org.simple.booking.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {"bookable.frame.start=2023-03-13", "bookable.frame.end=2023-03-17"})
+public class ReactiveBookingControllerIT {
+
+    // The base URL of the test client already ends with spring.webflux.base-path
+    private static final String BOOKING_BACKEND = "/v1";
+    private static final String HTTP_LOCALHOST = "http://localhost:";
+    private static final String BASE_PATH = "/booking-backend-service";
+    private static final LocalDateTime START_03_13_09_00 = LocalDateTime.of(2023, 3, 13, 9, 0, 0);
+    private static final LocalDateTime START_03_14_10_00 = LocalDateTime.of(2023, 3, 14, 10, 0, 0);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void endpointsAreServedUnderBasePath() {
+        webTestClient.get()
+                     .uri(HTTP_LOCALHOST + port + BASE_PATH + BOOKING_BACKEND + "/free?limit=1")
+                     .exchange()
+                     .expectStatus().isOk();
+        webTestClient.get()
+                     .uri(HTTP_LOCALHOST + port + BOOKING_BACKEND + "/free?limit=1")
+                     .exchange()
+                     .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void registeredBookingIsListedByClient() {
+        final Booking persisted = webTestClient.post()
+                                               .uri(BOOKING_BACKEND + "/book")
+                                               .bodyValue(getBooking("reactive", START_03_14_10_00, START_03_14_10_00.plusMinutes(60)))
+                                               .exchange()
+                                               .expectStatus().isCreated()
+                                               .expectBody(Booking.class)
+                                               .returnResult()
+                                               .getResponseBody();
+        assertNotNull(persisted.getId());
+
+        final List<Booking> bookings = webTestClient.get()
+                                                    .uri(BOOKING_BACKEND + "/client/reactive")
+                                                    .exchange()
+                                                    .expectStatus().isOk()
+                                                    .expectBodyList(Booking.class)
+                                                    .returnResult()
+                                                    .getResponseBody();
+        assertEquals(1, bookings.size());
+        assertEquals(persisted.getId(), bookings.get(0).getId());
+    }
+
+    @Test
+    public void overlappingBookingIsRejected() {
+        webTestClient.post()
+                     .uri(BOOKING_BACKEND + "/book")
+                     .bodyValue(getBooking("reactive-overlap", START_03_14_10_00.plusMinutes(120), START_03_14_10_00.plusMinutes(180)))
+                     .exchange()
+                     .expectStatus().isCreated();
+
+        webTestClient.post()
+                     .uri(BOOKING_BACKEND + "/book")
+                     .bodyValue(getBooking("reactive-overlap", START_03_14_10_00.plusMinutes(150), START_03_14_10_00.plusMinutes(210)))
+                     .exchange()
+                     .expectStatus().isBadRequest()
+                     .expectBody(String.class)
+                     .isEqualTo("Invalid request, the passed timeslot overlaps with a booked one: 2023-03-14T12:00 end: 2023-03-14T13:00");
+    }
+
+    @Test
+    public void freeTimeSlotsAreStreamedOnDemand() {
+        final Flux<Booking> freeTimeSlots = webTestClient.get()
+                                                         .uri(BOOKING_BACKEND + "/free")
+                                                         .accept(MediaType.APPLICATION_NDJSON)
+                                                         .exchange()
+                                                         .expectStatus().isOk()
+                                                         .returnResult(Booking.class)
+                                                         .getResponseBody();
+
+        StepVerifier.create(freeTimeSlots, 2)
+                    .assertNext(booking -> assertEquals(START_03_13_09_00, booking.getStart()))
+                    .assertNext(booking -> assertEquals(START_03_13_09_00.plusMinutes(30), booking.getStart()))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    public void invalidLimitIsRejected() {
+        webTestClient.get()
+                     .uri(BOOKING_BACKEND + "/free?limit=0")
+                     .exchange()
+                     .expectStatus().isBadRequest();
+    }
+
+    private Booking getBooking(final String client, final LocalDateTime start, final LocalDateTime end) {
+        return Booking.builder()
+                      .client(client)
+                      .start(start)
+                      .end(end)
+                      .build();
+    }
+}
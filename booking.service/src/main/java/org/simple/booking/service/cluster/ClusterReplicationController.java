@@ -0,0 +1,39 @@
+package org.simple.booking.service.cluster;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.simple.booking.service.service.persistence.BookingPersistenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Receives the records of the resources this node follows, sent by their owners.
+ * The records are applied without validation and logged, so only the nodes of the cluster are allowed to send them.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(value = "booking.cluster.enabled", havingValue = "true")
+public class ClusterReplicationController {
+
+    @Autowired
+    private ClusterTopology clusterTopology;
+    @Autowired
+    private BookingPersistenceService bookingPersistenceService;
+
+    @PostMapping(value = ClusterReplicator.REPLICATION_PATH, consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> replicate(@RequestBody final byte[] records, final HttpServletRequest request) {
+        if (!clusterTopology.isNodeAddress(request.getRemoteAddr())) {
+            log.warn("Refused the replicated records sent by {}, it is not a node of the cluster", request.getRemoteAddr());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        bookingPersistenceService.applyReplicated(records);
+        return ResponseEntity.noContent().build();
+    }
+
+}
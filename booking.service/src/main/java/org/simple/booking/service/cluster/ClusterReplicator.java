@@ -0,0 +1,207 @@
+package org.simple.booking.service.cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ships the write-ahead log records of the owned resources to their followers, which replay them into a replica.
+ * The records are shipped asynchronously, a booking is answered once it is in the local log, so a slow or down follower
+ * does not stall the writers. Every follower has a bounded queue and a single sender thread, the records enqueued
+ * while a batch is in flight form the next batch, so the records of a day reach the follower in the order of the store.
+ * A failed batch is retried until the follower is back. When its queue overflows meanwhile, the queued records are
+ * dropped and the follower is caught up by a resync: every loaded calendar it follows is sent as a reset record
+ * followed by its bookings. The replay skips the records it already applied, so the records enqueued during
+ * the resync are applied on top of it harmlessly.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "booking.cluster.enabled", havingValue = "true")
+public class ClusterReplicator {
+
+    public static final String REPLICATION_PATH = "/cluster/v1/replicate";
+    private static final int MAX_BATCH_SIZE = 4096;
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    @Autowired
+    private ClusterTopology clusterTopology;
+
+    @Value("${booking.cluster.timeout-millis:5000}")
+    private long timeoutMillis;
+    @Value("${booking.cluster.replication.queue-size:65536}")
+    private int queueSize;
+    @Value("${booking.cluster.replication.retry-millis:1000}")
+    private long retryMillis;
+
+    private final Map<String, Follower> followers = new ConcurrentHashMap<>();
+    private HttpClient httpClient;
+    private volatile boolean running = true;
+    // Encodes the reset and the bookings of the loaded calendars of the matching resources
+    private volatile Function<Predicate<String>, List<ByteBuffer>> resyncSource = resources -> List.of();
+
+    @PostConstruct
+    private void init() {
+        httpClient = HttpClient.newBuilder()
+                               .version(HttpClient.Version.HTTP_1_1)
+                               .connectTimeout(Duration.ofMillis(timeoutMillis))
+                               .build();
+    }
+
+    @PreDestroy
+    private void close() {
+        running = false;
+        followers.values().forEach(Follower::join);
+    }
+
+    /**
+     * Enqueues the record of a booking of the resource to the follower of the resource. Like the log append,
+     * it has to be called while the days of the booking are locked, it does not wait for the follower.
+     */
+    public void replicate(final String resource, final ByteBuffer record) {
+        final String follower = clusterTopology.getPlacement(resource).follower();
+        if (follower != null) {
+            followers.computeIfAbsent(follower, Follower::new).append(record);
+        }
+    }
+
+    /**
+     * The source of the records a follower is caught up with after its queue overflowed
+     */
+    public void setResyncSource(final Function<Predicate<String>, List<ByteBuffer>> resyncSource) {
+        this.resyncSource = resyncSource;
+    }
+
+    /**
+     * Sends the records, returns whether the follower applied them
+     */
+    private boolean send(final String node, final List<ByteBuffer> batch) {
+        final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        for (final ByteBuffer record : batch) {
+            records.write(record.array(), record.arrayOffset() + record.position(), record.remaining());
+        }
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(clusterTopology.getUrl(node) + REPLICATION_PATH))
+                                               .timeout(Duration.ofMillis(timeoutMillis))
+                                               .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                                               .POST(HttpRequest.BodyPublishers.ofByteArray(records.toByteArray()))
+                                               .build();
+        try {
+            final int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status / 100 == 2) {
+                return true;
+            }
+            log.warn("Replicating {} records to {} failed with status {}", batch.size(), node, status);
+        } catch (final IOException exception) {
+            log.warn("Replicating {} records to {} failed: {}", batch.size(), node, exception.toString());
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private class Follower {
+
+        private final String node;
+        private final BlockingQueue<ByteBuffer> queue = new LinkedBlockingQueue<>(queueSize);
+        private final Thread sender;
+        // Set when a record did not fit the queue, the replica is then rebuilt instead of patched
+        private volatile boolean outOfSync;
+
+        private Follower(final String node) {
+            this.node = node;
+            this.sender = new Thread(this::sendLoop, "booking-replication-" + node);
+            this.sender.setDaemon(true);
+            this.sender.start();
+        }
+
+        private void append(final ByteBuffer record) {
+            if (!outOfSync && !queue.offer(record)) {
+                outOfSync = true;
+                log.error("The replication queue of {} is full, it is resynced when it is back", node);
+            }
+        }
+
+        private void sendLoop() {
+            while (running || !queue.isEmpty()) {
+                try {
+                    if (outOfSync) {
+                        resync();
+                    } else {
+                        final ByteBuffer first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                        if (first != null) {
+                            final List<ByteBuffer> batch = new ArrayList<>();
+                            batch.add(first);
+                            queue.drainTo(batch, MAX_BATCH_SIZE);
+                            sendUntilApplied(batch);
+                        }
+                    }
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Drops the queued records and sends the current state of the followed resources instead,
+         * the records enqueued from now on follow it
+         */
+        private void resync() throws InterruptedException {
+            outOfSync = false;
+            queue.clear();
+            final List<ByteBuffer> records = resyncSource.apply(resource -> {
+                final ClusterTopology.Placement placement = clusterTopology.getPlacement(resource);
+                return clusterTopology.isLocal(placement.owner()) && node.equals(placement.follower());
+            });
+            for (int from = 0; from < records.size() && !outOfSync; from += MAX_BATCH_SIZE) {
+                sendUntilApplied(records.subList(from, Math.min(records.size(), from + MAX_BATCH_SIZE)));
+            }
+            log.info("Resynced {} records to {}", records.size(), node);
+        }
+
+        /**
+         * Retries the batch until the follower applies it, the service stops, or the queue overflows,
+         * which makes the batch obsolete as the resync covers it
+         */
+        private void sendUntilApplied(final List<ByteBuffer> batch) throws InterruptedException {
+            while (!send(node, batch)) {
+                if (!running || outOfSync) {
+                    return;
+                }
+                TimeUnit.MILLISECONDS.sleep(retryMillis);
+            }
+        }
+
+        private void join() {
+            try {
+                sender.join();
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
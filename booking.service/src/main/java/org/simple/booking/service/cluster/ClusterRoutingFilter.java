@@ -0,0 +1,232 @@
+package org.simple.booking.service.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.simple.booking.service.cluster.ClusterTopology.Placement;
+import org.simple.booking.service.domain.RejectionReason;
+import org.simple.booking.service.service.metrics.BookingMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
+import static org.simple.booking.service.domain.Constants.IDEMPOTENCY_KEY;
+import static org.simple.booking.service.domain.Constants.NOT_OWNER;
+import static org.simple.booking.service.domain.Constants.OWNER_NOT_ANSWERING;
+import static org.simple.booking.service.domain.Constants.OWNER_NOT_REACHABLE;
+
+/**
+ * Routes every request of the booking API to the node owning its resource, the other nodes forward it unchanged
+ * and stream the answer of the owner back. As only the owner registers, cancels and moves the bookings of a resource,
+ * under the day locks of its calendar, the overlap check of one node holds for the whole cluster.
+ * When the owner is not reachable the reads are served by the follower of the resource from its replica,
+ * the writes are refused, a follower never takes over the registrations.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "booking.cluster.enabled", havingValue = "true")
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+
+    /**
+     * Set on the forwarded requests, its receiver serves them locally instead of forwarding them again
+     */
+    public static final String FORWARDED_BY = "X-Booking-Forwarded-By";
+    private static final String API_PATH = "/v1/";
+    private static final String BOOK_PATH = "/v1/book";
+    private static final String BATCH_PATH = "/v1/book/batch";
+    private static final String RESOURCE = "resource";
+    private static final String QUERY_SEPARATOR = "?";
+
+    @Autowired
+    private ClusterTopology clusterTopology;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BookingMetrics bookingMetrics;
+
+    @Value("${booking.cluster.timeout-millis:5000}")
+    private long timeoutMillis;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    private void init() {
+        httpClient = HttpClient.newBuilder()
+                               .version(HttpClient.Version.HTTP_1_1)
+                               .connectTimeout(Duration.ofMillis(timeoutMillis))
+                               .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !getPath(request).startsWith(API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+        final String path = getPath(request);
+        final byte[] body = HttpMethod.POST.matches(request.getMethod()) ? request.getInputStream().readAllBytes() : null;
+        final HttpServletRequest readableRequest = body == null ? request : new CachedBodyRequest(request, body);
+        final List<String> resources = getResources(request, path, body);
+        final Set<String> owners = new TreeSet<>();
+        resources.forEach(resource -> owners.add(clusterTopology.getPlacement(resource).owner()));
+        if (owners.isEmpty()) {
+            // Not a valid request, it is rejected by the controller
+            filterChain.doFilter(readableRequest, response);
+            return;
+        }
+        if (owners.size() > 1) {
+            bookingMetrics.rejected(RejectionReason.BATCH_ACROSS_NODES);
+            writeMessage(response, HttpStatus.BAD_REQUEST, RejectionReason.BATCH_ACROSS_NODES.getMessage(new TreeSet<>(resources)));
+            return;
+        }
+
+        final Placement placement = clusterTopology.getPlacement(resources.get(0));
+        final boolean read = HttpMethod.GET.matches(request.getMethod());
+        if (clusterTopology.isLocal(placement.owner())) {
+            filterChain.doFilter(readableRequest, response);
+        } else if (request.getHeader(FORWARDED_BY) != null) {
+            // A read the owner could not serve, or a node of a different membership routed it here
+            if (read && clusterTopology.isLocal(placement.follower())) {
+                filterChain.doFilter(readableRequest, response);
+            } else {
+                writeMessage(response, HttpStatus.SERVICE_UNAVAILABLE, NOT_OWNER + placement.owner());
+            }
+        } else {
+            route(readableRequest, response, filterChain, path, body, placement, read);
+        }
+    }
+
+    private void route(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain, final String path,
+                       final byte[] body, final Placement placement, final boolean read) throws ServletException, IOException {
+        try {
+            forward(request, response, path, body, placement.owner());
+        } catch (final ConnectException | HttpConnectTimeoutException exception) {
+            log.warn("The owner {} of {} is not reachable: {}", placement.owner(), path, exception.toString());
+            if (!read || placement.follower() == null) {
+                writeMessage(response, HttpStatus.SERVICE_UNAVAILABLE, OWNER_NOT_REACHABLE + placement.owner());
+            } else if (clusterTopology.isLocal(placement.follower())) {
+                filterChain.doFilter(request, response);
+            } else {
+                try {
+                    forward(request, response, path, body, placement.follower());
+                } catch (final IOException followerException) {
+                    writeMessage(response, HttpStatus.SERVICE_UNAVAILABLE, OWNER_NOT_REACHABLE + placement.owner());
+                }
+            }
+        } catch (final IOException exception) {
+            if (response.isCommitted()) {
+                throw exception;
+            }
+            // The request may have been served, the client has to check its outcome before retrying a write
+            writeMessage(response, HttpStatus.GATEWAY_TIMEOUT, OWNER_NOT_ANSWERING + placement.owner());
+        }
+    }
+
+    private void forward(final HttpServletRequest request, final HttpServletResponse response, final String path, final byte[] body,
+                         final String node) throws IOException {
+        final String query = request.getQueryString();
+        final HttpRequest.Builder forwardedRequest = HttpRequest.newBuilder(URI.create(clusterTopology.getUrl(node) + path
+                                                                                               + (query == null ? "" : QUERY_SEPARATOR + query)))
+                                                                .timeout(Duration.ofMillis(timeoutMillis))
+                                                                .header(FORWARDED_BY, clusterTopology.getNodeId())
+                                                                .method(request.getMethod(), body == null ? HttpRequest.BodyPublishers.noBody()
+                                                                                                          : HttpRequest.BodyPublishers.ofByteArray(body));
+        copyHeader(request, forwardedRequest, HttpHeaders.CONTENT_TYPE);
+        copyHeader(request, forwardedRequest, HttpHeaders.ACCEPT);
+        copyHeader(request, forwardedRequest, IDEMPOTENCY_KEY);
+
+        final HttpResponse<InputStream> forwardedResponse;
+        try {
+            forwardedResponse = httpClient.send(forwardedRequest.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while forwarding to " + node, exception);
+        }
+        response.setStatus(forwardedResponse.statusCode());
+        forwardedResponse.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(response::setContentType);
+        forwardedResponse.headers().firstValue(HttpHeaders.LOCATION).ifPresent(location -> response.setHeader(HttpHeaders.LOCATION, location));
+        try (InputStream forwardedBody = forwardedResponse.body()) {
+            // Streamed as it arrives, so the newline delimited responses stay streaming
+            forwardedBody.transferTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * The resources the request is about: the resource parameter, or the resource of the booking in the body
+     */
+    private List<String> getResources(final HttpServletRequest request, final String path, final byte[] body) {
+        if (body == null || !(BOOK_PATH.equals(path) || BATCH_PATH.equals(path))) {
+            final String resource = request.getParameter(RESOURCE);
+            return List.of(resource == null ? DEFAULT_RESOURCE : resource);
+        }
+        final List<String> resources = new ArrayList<>();
+        try {
+            final JsonNode json = objectMapper.readTree(body);
+            if (json == null) {
+                return resources;
+            }
+            if (json.isArray()) {
+                json.forEach(booking -> resources.add(getResource(booking)));
+            } else {
+                resources.add(getResource(json));
+            }
+        } catch (final IOException exception) {
+            // Not a valid request, it is rejected by the controller
+            resources.clear();
+        }
+        return resources;
+    }
+
+    private static String getResource(final JsonNode booking) {
+        final JsonNode resource = booking.get(RESOURCE);
+        return resource == null || resource.isNull() ? DEFAULT_RESOURCE : resource.asText();
+    }
+
+    private static String getPath(final HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static void copyHeader(final HttpServletRequest request, final HttpRequest.Builder forwardedRequest, final String header) {
+        final String value = request.getHeader(header);
+        if (value != null) {
+            forwardedRequest.header(header, value);
+        }
+    }
+
+    private static void writeMessage(final HttpServletResponse response, final HttpStatus status, final String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+}
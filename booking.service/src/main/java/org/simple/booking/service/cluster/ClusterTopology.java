@@ -0,0 +1,155 @@
+package org.simple.booking.service.cluster;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The static membership of the cluster and the consistent hash ring placing the resources on the nodes.
+ * Every node is put on the ring at many points, a resource is owned by the node of the first point after its hash,
+ * and followed by the next different node, so adding a node only moves the resources of the arcs it takes over.
+ * The nodes are configured as {@code id=url} pairs, the url including the context path.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "booking.cluster.enabled", havingValue = "true")
+public class ClusterTopology {
+
+    private static final String NODE_SEPARATOR = "=";
+    private static final String VIRTUAL_NODE_SEPARATOR = "#";
+
+    @Value("${booking.cluster.node-id}")
+    private String nodeId;
+    @Value("${booking.cluster.nodes}")
+    private List<String> nodes;
+    @Value("${booking.cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    private final Map<String, String> urls = new LinkedHashMap<>();
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final Map<String, Placement> placements = new ConcurrentHashMap<>();
+    private final Set<String> addresses = new HashSet<>();
+
+    @PostConstruct
+    private void init() {
+        for (final String node : nodes) {
+            final int separator = node.indexOf(NODE_SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalStateException("Invalid cluster node, expected id=url: " + node);
+            }
+            urls.put(node.substring(0, separator).trim(), node.substring(separator + 1).trim());
+        }
+        if (!urls.containsKey(nodeId)) {
+            throw new IllegalStateException("The node " + nodeId + " is not a member of the cluster: " + urls.keySet());
+        }
+        for (final String node : urls.keySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + VIRTUAL_NODE_SEPARATOR + i), node);
+            }
+        }
+        for (final String url : urls.values()) {
+            resolve(URI.create(url).getHost());
+        }
+        log.info("Joined the cluster of {} as {}", urls.keySet(), nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getUrl(final String node) {
+        return urls.get(node);
+    }
+
+    public boolean isLocal(final String node) {
+        return nodeId.equals(node);
+    }
+
+    /**
+     * Whether the address is one of the hosts of the nodes, the requests forwarded by another node come from them
+     */
+    public boolean isNodeAddress(final String address) {
+        return addresses.contains(address);
+    }
+
+    /**
+     * Returns the owner and the follower of the resource, the membership is static, so they are computed once
+     */
+    public Placement getPlacement(final String resource) {
+        return placements.computeIfAbsent(resource, this::place);
+    }
+
+    private Placement place(final String resource) {
+        final long hash = hash(resource);
+        final String owner = nodeAt(hash);
+        for (Map.Entry<Long, String> point = ring.higherEntry(hash); ; point = ring.higherEntry(point.getKey())) {
+            if (point == null) {
+                point = ring.firstEntry();
+            }
+            if (!point.getValue().equals(owner)) {
+                return new Placement(owner, point.getValue());
+            }
+            if (urls.size() == 1) {
+                return new Placement(owner, null);
+            }
+        }
+    }
+
+    private String nodeAt(final long hash) {
+        final Map.Entry<Long, String> point = ring.ceilingEntry(hash);
+        return point == null ? ring.firstEntry().getValue() : point.getValue();
+    }
+
+    /**
+     * Adds the addresses of the host, resolved once, as the membership is static
+     */
+    private void resolve(final String host) {
+        if (host == null) {
+            return;
+        }
+        try {
+            for (final InetAddress address : InetAddress.getAllByName(host)) {
+                addresses.add(address.getHostAddress());
+            }
+        } catch (final UnknownHostException exception) {
+            log.warn("The host of a cluster node is not resolved, its forwarded requests are not trusted: {}", host);
+        }
+    }
+
+    /**
+     * The first 8 bytes of the MD5 digest, unlike String.hashCode it spreads the similar names of the virtual nodes
+     */
+    private static long hash(final String key) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8))).getLong();
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * @param owner    the node registering the bookings of the resource
+     * @param follower the node keeping a replica of the resource, null in a single node cluster
+     */
+    public record Placement(String owner, String follower) {
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.simple.booking.service.config;
+
+import org.simple.booking.service.domain.BookingTimeFormat;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.AnnotationFormatterFactory;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.format.Parser;
+import org.springframework.format.Printer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.datetime.standard.Jsr310DateTimeFormatAnnotationFormatterFactory;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Parses the request parameters in the booking time format with BookingTimeFormat, the other
+ * DateTimeFormat patterns and the malformed values are left to the default formatters.
+ * Registered after the default factory, so it is the one found for a LocalDateTime parameter.
+ */
+@Configuration
+public class BookingTimeFormatConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addFormatters(final FormatterRegistry registry) {
+        registry.addFormatterForFieldAnnotation(new BookingTimeFormatterFactory());
+    }
+
+    private static class BookingTimeFormatterFactory implements AnnotationFormatterFactory<DateTimeFormat> {
+
+        private final Jsr310DateTimeFormatAnnotationFormatterFactory defaultFactory = new Jsr310DateTimeFormatAnnotationFormatterFactory();
+
+        @Override
+        public Set<Class<?>> getFieldTypes() {
+            return Set.of(LocalDateTime.class);
+        }
+
+        @Override
+        public Printer<?> getPrinter(final DateTimeFormat annotation, final Class<?> fieldType) {
+            return defaultFactory.getPrinter(annotation, fieldType);
+        }
+
+        @Override
+        public Parser<?> getParser(final DateTimeFormat annotation, final Class<?> fieldType) {
+            final Parser<?> defaultParser = defaultFactory.getParser(annotation, fieldType);
+            if (!BookingTimeFormat.PATTERN.equals(annotation.pattern())) {
+                return defaultParser;
+            }
+            return (text, locale) -> {
+                final LocalDateTime time = BookingTimeFormat.parse(text);
+                return time != null ? time : defaultParser.parse(text, locale);
+            };
+        }
+    }
+
+}
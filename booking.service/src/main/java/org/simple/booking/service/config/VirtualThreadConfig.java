@@ -0,0 +1,48 @@
+package org.simple.booking.service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in mode running every request, and the asynchronous streaming responses, on a new virtual thread
+ * instead of the bounded Tomcat worker pool, so slow clients do not tie up the workers.
+ * It needs Java 21, the lookup is reflective, so the service still builds and runs on Java 17 without it.
+ * The store only uses ReentrantLocks around in-memory work, which do not pin the carrier threads.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(value = "booking.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        log.info("Handling the requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException exception) {
+            throw new IllegalStateException("Virtual threads need Java 21 or newer, the service runs on Java "
+                                                    + Runtime.version().feature(), exception);
+        }
+    }
+
+}
@@ -1,83 +1,216 @@
 package org.simple.booking.service.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import jakarta.validation.Valid;
 import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.BookingBatchResult;
 import org.simple.booking.service.service.BookingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
+import static org.simple.booking.service.domain.Constants.IDEMPOTENCY_KEY;
 
 @Validated
 @RestController
 @RequestMapping("/v1")
 public class BookingController {
 
+    private static final String NEW_LINE = "\n";
+
     @Autowired
     private BookingService bookingService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @PostMapping("/book")
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Booking> registerBooking(@RequestBody @Valid final Booking booking) {
-        final Booking persistedBooking = bookingService.registerBooking(booking);
+    public ResponseEntity<Booking> registerBooking(@RequestBody @Valid final Booking booking,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY, required = false) final String idempotencyKey) {
+        final Booking persistedBooking = bookingService.registerBooking(booking, idempotencyKey);
         return ResponseEntity.created(URI.create(persistedBooking.getId()))
                              .body(persistedBooking);
     }
 
+    @PostMapping("/book/batch")
+    public ResponseEntity<BookingBatchResult> registerBookings(@RequestBody final List<Booking> bookings,
+                                                               @RequestParam(value = "atomic", defaultValue = "true") final boolean atomic) {
+        final BookingBatchResult result = bookingService.registerBookings(bookings, atomic);
+        return ResponseEntity.status(result.getCommitted() > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST)
+                             .body(result);
+    }
+
+    @DeleteMapping("/book/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Booking> cancelBooking(@PathVariable("id") final String id,
+                                                 @RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource) {
+        return ResponseEntity.ok(bookingService.cancelBooking(resource, id));
+    }
+
+    @PatchMapping("/book/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Booking> rescheduleBooking(@PathVariable("id") final String id,
+                                                     @RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                     @RequestParam("start")
+                                                     @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime start,
+                                                     @RequestParam("end")
+                                                     @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime end) {
+        return ResponseEntity.ok(bookingService.rescheduleBooking(resource, id, start, end));
+    }
+
     @GetMapping("/booked")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<Booking>> getAllBookedTimeSlots() {
-        return ResponseEntity.ok(bookingService.getBookedTimeSlots());
+    public ResponseEntity<List<Booking>> getAllBookedTimeSlots(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                               @RequestParam(value = "after", required = false)
+                                                               @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after,
+                                                               @RequestParam(value = "limit", required = false) final Integer limit) {
+        return ResponseEntity.ok(bookingService.getBookedTimeSlots(resource, after, limit));
+    }
+
+    @GetMapping(value = "/booked", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<StreamingResponseBody> streamAllBookedTimeSlots(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                                          @RequestParam(value = "after", required = false)
+                                                                          @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after) {
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_NDJSON)
+                             .body(writeAsNdjson(() -> bookingService.streamBookedTimeSlots(resource, after)));
     }
 
     @GetMapping("/booked/timeframe")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<Booking>> getBookedTimeSlotsByTimeFrame(@RequestParam("start")
+    public ResponseEntity<List<Booking>> getBookedTimeSlotsByTimeFrame(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                                       @RequestParam("start")
                                                                        @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime start,
                                                                        @RequestParam("end")
                                                                        @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime end) {
-        return ResponseEntity.ok(bookingService.getBookedTimeSlotsByTimeFrame(start, end));
+        return ResponseEntity.ok(bookingService.getBookedTimeSlotsByTimeFrame(resource, start, end));
     }
 
     @GetMapping("/free")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<Booking>> getAllFreeTimeSlots() {
-        return ResponseEntity.ok(bookingService.getFreeTimeSlots());
+    public ResponseEntity<List<Booking>> getAllFreeTimeSlots(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                             @RequestParam(value = "after", required = false)
+                                                             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after,
+                                                             @RequestParam(value = "limit", required = false) final Integer limit) {
+        return ResponseEntity.ok(bookingService.getFreeTimeSlots(resource, after, limit));
+    }
+
+    @GetMapping(value = "/free", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<StreamingResponseBody> streamAllFreeTimeSlots(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                                        @RequestParam(value = "after", required = false)
+                                                                        @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after) {
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_NDJSON)
+                             .body(writeAsNdjson(() -> bookingService.streamFreeTimeSlots(resource, after)));
     }
 
     @GetMapping("/free/timeframe")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<Booking>> getFreeTimeSlotsByTimeFrame(@RequestParam("start")
+    public ResponseEntity<List<Booking>> getFreeTimeSlotsByTimeFrame(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                                     @RequestParam("start")
                                                                      @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime start,
                                                                      @RequestParam("end")
                                                                      @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime end) {
-        return ResponseEntity.ok(bookingService.getFreeTimeSlotsByTimeFrame(start, end));
+        return ResponseEntity.ok(bookingService.getFreeTimeSlotsByTimeFrame(resource, start, end));
+    }
+
+    @GetMapping("/free/next")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Booking> findNextFreeTimeSlot(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                        @RequestParam("duration") final int duration,
+                                                        @RequestParam(value = "after", required = false)
+                                                        @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after) {
+        return ResponseEntity.ok(bookingService.findNextFreeTimeSlot(resource, duration, after));
+    }
+
+    @GetMapping("/free/candidates")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<List<Booking>> findFreeTimeSlots(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                           @RequestParam("duration") final int duration,
+                                                           @RequestParam(value = "after", required = false)
+                                                           @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after,
+                                                           @RequestParam(value = "limit", defaultValue = "10") final Integer limit) {
+        return ResponseEntity.ok(bookingService.findFreeTimeSlots(resource, duration, after, limit));
+    }
+
+    @GetMapping("/free/longest")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<List<Booking>> getLongestFreeTimeSlots(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                                 @RequestParam("start")
+                                                                 @DateTimeFormat(pattern = "yyyy-MM-dd") final LocalDate start,
+                                                                 @RequestParam("end")
+                                                                 @DateTimeFormat(pattern = "yyyy-MM-dd") final LocalDate end) {
+        return ResponseEntity.ok(bookingService.getLongestFreeTimeSlots(resource, start, end));
     }
 
     @GetMapping("/specific-time/{specifiedTime}")
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<Booking> getTimeSlotByTime(@PathVariable("specifiedTime")
-                                                     @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime specifiedTime) {
-        return ResponseEntity.ok(bookingService.getTimeSlotByTime(specifiedTime));
+                                                     @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime specifiedTime,
+                                                     @RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource) {
+        return ResponseEntity.ok(bookingService.getTimeSlotByTime(resource, specifiedTime));
     }
 
     @GetMapping("/client/{client}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<Booking>> getAllByUser(@PathVariable("client") final String client) {
-        return ResponseEntity.ok(bookingService.getBookingsByClient(client));
+    public ResponseEntity<List<Booking>> getAllByUser(@PathVariable("client") final String client,
+                                                      @RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                      @RequestParam(value = "start", required = false)
+                                                      @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime start,
+                                                      @RequestParam(value = "end", required = false)
+                                                      @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime end,
+                                                      @RequestParam(value = "after", required = false)
+                                                      @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm") final LocalDateTime after,
+                                                      @RequestParam(value = "limit", required = false) final Integer limit) {
+        return ResponseEntity.ok(bookingService.getBookingsByClient(resource, client, start, end, after, limit));
+    }
+
+    /**
+     * Writes every booking as a separate JSON line as soon as it is read from the store,
+     * without collecting them into a list first
+     */
+    private StreamingResponseBody writeAsNdjson(final Supplier<Stream<Booking>> bookings) {
+        return outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                                                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                                                     .withRootValueSeparator(NEW_LINE)
+                                                     .writeValues(outputStream);
+                 Stream<Booking> stream = bookings.get()) {
+                final Iterator<Booking> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                }
+                writer.flush();
+            }
+        };
     }
 
 }
@@ -0,0 +1,227 @@
+package org.simple.booking.service.controller;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.simple.booking.service.domain.BookingEvent;
+import org.simple.booking.service.service.event.BookingEventBuffer.Read;
+import org.simple.booking.service.service.event.BookingEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
+
+/**
+ * Server-sent events of the booking changes of a resource. A dispatcher thread waits for the changes of the shared
+ * event buffer and hands the subscribers having something to send, or a heartbeat due, to a small pool of stream threads,
+ * every subscriber reads the buffer from its last event id. So the number of threads does not grow with the subscribers,
+ * and a client reconnecting with the Last-Event-ID header continues where it left off. A subscriber that fell behind
+ * the buffer, or resumes after an event of a previous start of the service, gets a resync event with the last event id
+ * and the stream is closed, the client reloads the booked timeslots and subscribes after that event.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1")
+public class BookingEventController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final String RESYNC = "resync";
+    private static final String HEARTBEAT = "heartbeat";
+    private static final String SUBSCRIBED = "subscribed";
+    private static final int MAX_EVENTS_PER_READ = 256;
+    // The dispatcher checks the heartbeats and the closed streams at least this often
+    private static final long DISPATCH_INTERVAL_MILLIS = 1000;
+
+    @Autowired
+    private BookingEventService bookingEventService;
+
+    @Value("${booking.events.max-subscribers:256}")
+    private int maxSubscribers;
+    @Value("${booking.events.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+    @Value("${booking.events.stream-timeout-minutes:30}")
+    private long streamTimeoutMinutes;
+    @Value("${booking.events.stream-threads:2}")
+    private int streamThreads;
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Queue<Subscriber> subscribers = new ConcurrentLinkedQueue<>();
+    private ExecutorService streamExecutor;
+    private Thread dispatcher;
+    private volatile boolean running = true;
+
+    @PostConstruct
+    private void init() {
+        final AtomicInteger threads = new AtomicInteger();
+        streamExecutor = Executors.newFixedThreadPool(Math.max(1, streamThreads), runnable -> {
+            final Thread thread = new Thread(runnable, "booking-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = new Thread(this::dispatch, "booking-events-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    private void close() {
+        running = false;
+        dispatcher.interrupt();
+        streamExecutor.shutdownNow();
+    }
+
+    /**
+     * Streams the changes after the given event id, or the ones from now on without it
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestParam(value = "resource", defaultValue = DEFAULT_RESOURCE) final String resource,
+                                                   @RequestParam(value = "after", required = false) final String after,
+                                                   @RequestHeader(value = LAST_EVENT_ID, required = false) final String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        final String afterEventId = lastEventId != null ? lastEventId : after;
+        final OptionalLong afterSequence = afterEventId != null ? bookingEventService.getSequence(afterEventId)
+                                                                : OptionalLong.of(bookingEventService.getLastSequence());
+        final SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(streamTimeoutMinutes));
+        final Subscriber subscriber = new Subscriber(emitter, resource, afterSequence.orElse(bookingEventService.getLastSequence()),
+                                                     afterSequence.isEmpty());
+        emitter.onCompletion(() -> subscriber.closed = true);
+        emitter.onTimeout(() -> subscriber.closed = true);
+        emitter.onError(error -> subscriber.closed = true);
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Waits for the next readable event, then schedules every subscriber, which sends what it has not sent yet
+     */
+    private void dispatch() {
+        long readable = bookingEventService.getLastSequence();
+        while (running) {
+            try {
+                bookingEventService.await(readable, DISPATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException exception) {
+                // The service is shutting down
+                return;
+            }
+            Read read = bookingEventService.read(readable, MAX_EVENTS_PER_READ);
+            while (!read.events().isEmpty()) {
+                readable = read.events().get(read.events().size() - 1).getSequence();
+                read = bookingEventService.read(readable, MAX_EVENTS_PER_READ);
+            }
+            if (read.lapped()) {
+                readable = read.lastSequence();
+            }
+            subscribers.forEach(this::schedule);
+        }
+    }
+
+    /**
+     * Runs the stream of the subscriber on the pool, unless it is already running
+     */
+    private void schedule(final Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            streamExecutor.execute(() -> stream(subscriber));
+        }
+    }
+
+    /**
+     * Sends the readable events of the resource after the last sequence of the subscriber, or a heartbeat if it is due.
+     * An event becoming readable while the stream is finishing would miss the dispatch, so it is checked again.
+     */
+    private void stream(final Subscriber subscriber) {
+        final SseEmitter emitter = subscriber.emitter;
+        try {
+            if (subscriber.lastSent == 0) {
+                // Commits the response, so the client knows it is subscribed before the first change
+                emitter.send(SseEmitter.event().comment(SUBSCRIBED));
+                subscriber.lastSent = System.nanoTime();
+            }
+            while (!subscriber.closed) {
+                final Read read = bookingEventService.read(subscriber.sequence, MAX_EVENTS_PER_READ);
+                if (subscriber.stale || read.lapped()) {
+                    emitter.send(SseEmitter.event().name(RESYNC).data(bookingEventService.getEventId(read.lastSequence())));
+                    emitter.complete();
+                    subscriber.closed = true;
+                    break;
+                } else if (read.events().isEmpty()) {
+                    break;
+                }
+                for (final BookingEvent event : read.events()) {
+                    subscriber.sequence = event.getSequence();
+                    if (subscriber.resource.equals(event.getBooking().getResource())) {
+                        emitter.send(SseEmitter.event()
+                                               .id(bookingEventService.getEventId(subscriber.sequence))
+                                               .name(event.getType().name().toLowerCase(Locale.ROOT))
+                                               .data(event, MediaType.APPLICATION_JSON));
+                        subscriber.lastSent = System.nanoTime();
+                    }
+                }
+            }
+            if (!subscriber.closed && System.nanoTime() - subscriber.lastSent >= TimeUnit.SECONDS.toNanos(heartbeatSeconds)) {
+                // Finds the clients that are gone while their resource does not change
+                emitter.send(SseEmitter.event().comment(HEARTBEAT));
+                subscriber.lastSent = System.nanoTime();
+            }
+        } catch (final IOException | IllegalStateException exception) {
+            // The client is gone or the stream timed out
+            log.debug("Closed the event stream of {}: {}", subscriber.resource, exception.toString());
+            subscriber.closed = true;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (subscriber.closed) {
+            if (subscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+        } else if (!bookingEventService.read(subscriber.sequence, 1).events().isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * A stream, only run by one thread at a time
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final String resource;
+        // Resumes after an event of a previous start, so it has to resync
+        private final boolean stale;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private long sequence;
+        private long lastSent;
+
+        private Subscriber(final SseEmitter emitter, final String resource, final long sequence, final boolean stale) {
+            this.emitter = emitter;
+            this.resource = resource;
+            this.sequence = sequence;
+            this.stale = stale;
+        }
+    }
+
+}
@@ -1,7 +1,8 @@
 package org.simple.booking.service.domain;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 import lombok.Getter;
@@ -28,13 +29,16 @@ public class Booking {
     private String client;
 
     @NotNull(message = "Start date and time cannot be null.")
-    @JsonFormat(pattern = "yyyy-MM-dd HH:mm")
+    @JsonSerialize(using = BookingTimeFormat.Serializer.class)
+    @JsonDeserialize(using = BookingTimeFormat.Deserializer.class)
     private final LocalDateTime start;
 
     @NotNull(message = "End date and time cannot be null.")
-    @JsonFormat(pattern = "yyyy-MM-dd HH:mm")
+    @JsonSerialize(using = BookingTimeFormat.Serializer.class)
+    @JsonDeserialize(using = BookingTimeFormat.Deserializer.class)
     private final LocalDateTime end;
 
-
+    // The bookable resource (room, staff, device), the default calendar is used when it is missing
+    private final String resource;
 
 }
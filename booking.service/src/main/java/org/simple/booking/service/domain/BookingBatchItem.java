@@ -0,0 +1,28 @@
+package org.simple.booking.service.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+/**
+ * The outcome of one booking of a batch, the booking has an id if it was committed
+ */
+@Getter
+@Builder
+@ToString
+@Jacksonized
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class BookingBatchItem {
+
+    // Position of the booking in the request
+    private final int index;
+
+    private final Booking booking;
+
+    private final List<String> errors;
+
+}
@@ -0,0 +1,25 @@
+package org.simple.booking.service.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Getter
+@Builder
+@ToString
+@Jacksonized
+public class BookingBatchResult {
+
+    // In atomic mode either every booking is committed or none of them
+    private final boolean atomic;
+
+    private final int committed;
+
+    private final int rejected;
+
+    private final List<BookingBatchItem> items;
+
+}
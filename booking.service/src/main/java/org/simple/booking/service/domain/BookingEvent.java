@@ -0,0 +1,24 @@
+package org.simple.booking.service.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * A change of the booking store, the sequence numbers grow by one with every change of the node
+ */
+@Getter
+@Builder
+@ToString
+@Jacksonized
+public class BookingEvent {
+
+    private final long sequence;
+
+    private final BookingEventType type;
+
+    // The booking after the change, a cancelled booking as it was before the cancellation
+    private final Booking booking;
+
+}
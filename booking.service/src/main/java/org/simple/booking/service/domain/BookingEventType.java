@@ -0,0 +1,7 @@
+package org.simple.booking.service.domain;
+
+public enum BookingEventType {
+    BOOKED,
+    CANCELLED,
+    RESCHEDULED
+}
@@ -0,0 +1,186 @@
+package org.simple.booking.service.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The fixed 'yyyy-MM-dd HH:mm' format of the booking times, read and written digit by digit.
+ * The DateTimeFormatter builds a map of the parsed fields and resolves it for every value,
+ * here a well-formed time only costs the LocalDateTime itself. Anything else, a wrong shape,
+ * a field out of its range or a year before 1 or after 9999, goes through the formatter,
+ * so the accepted values, the resolved ones and the errors stay the same.
+ */
+public final class BookingTimeFormat {
+
+    public static final String PATTERN = "yyyy-MM-dd HH:mm";
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+
+    private static final int LENGTH = PATTERN.length();
+
+    private BookingTimeFormat() {
+    }
+
+    /**
+     * Returns the time of a well-formed value, or null if the value has to be parsed by the formatter
+     */
+    public static LocalDateTime parse(final char[] chars, final int offset, final int length) {
+        if (length != LENGTH || chars[offset + 4] != '-' || chars[offset + 7] != '-' || chars[offset + 10] != ' '
+                || chars[offset + 13] != ':') {
+            return null;
+        }
+        final int year = digits(chars, offset, 4);
+        final int month = digits(chars, offset + 5, 2);
+        final int day = digits(chars, offset + 8, 2);
+        final int hour = digits(chars, offset + 11, 2);
+        final int minute = digits(chars, offset + 14, 2);
+        return of(year, month, day, hour, minute);
+    }
+
+    /**
+     * Returns the time of a well-formed value, or null if the value has to be parsed by the formatter
+     */
+    public static LocalDateTime parse(final CharSequence text) {
+        if (text.length() != LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != ' '
+                || text.charAt(13) != ':') {
+            return null;
+        }
+        return of(digits(text, 0, 4), digits(text, 5, 2), digits(text, 8, 2), digits(text, 11, 2), digits(text, 14, 2));
+    }
+
+    /**
+     * Returns the time of the parsed fields, or null if any of them is out of its range
+     */
+    private static LocalDateTime of(final int year, final int month, final int day, final int hour, final int minute) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    /**
+     * Writes the time into the 16 characters from the offset, returns false if the formatter has to write it
+     */
+    public static boolean format(final LocalDateTime time, final char[] chars, final int offset) {
+        if (time.getYear() < 1 || time.getYear() > 9999 || time.getSecond() != 0 || time.getNano() != 0) {
+            return false;
+        }
+        writeDigits(time.getYear(), chars, offset, 4);
+        chars[offset + 4] = '-';
+        writeDigits(time.getMonthValue(), chars, offset + 5, 2);
+        chars[offset + 7] = '-';
+        writeDigits(time.getDayOfMonth(), chars, offset + 8, 2);
+        chars[offset + 10] = ' ';
+        writeDigits(time.getHour(), chars, offset + 11, 2);
+        chars[offset + 13] = ':';
+        writeDigits(time.getMinute(), chars, offset + 14, 2);
+        return true;
+    }
+
+    /**
+     * Returns the number of the digits, or -1 if any of them is not a digit
+     */
+    private static int digits(final char[] chars, final int offset, final int count) {
+        int value = 0;
+        for (int index = offset; index < offset + count; index++) {
+            final int digit = chars[index] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int digits(final CharSequence text, final int offset, final int count) {
+        int value = 0;
+        for (int index = offset; index < offset + count; index++) {
+            final int digit = text.charAt(index) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void writeDigits(final int value, final char[] chars, final int offset, final int count) {
+        int remaining = value;
+        for (int index = offset + count - 1; index >= offset; index--) {
+            chars[index] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+    }
+
+    /**
+     * Reads a booking time from the characters of the parser, without creating a String
+     */
+    public static class Deserializer extends LocalDateTimeDeserializer {
+
+        public Deserializer() {
+            super(FORMATTER);
+        }
+
+        @Override
+        public LocalDateTime deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_STRING)) {
+                final LocalDateTime time = parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                if (time != null) {
+                    return time;
+                }
+            }
+            return super.deserialize(parser, context);
+        }
+
+        /**
+         * The format is fixed, a property format would replace this deserializer with the default one
+         */
+        @Override
+        public JsonDeserializer<?> createContextual(final DeserializationContext context, final BeanProperty property) {
+            return this;
+        }
+    }
+
+    /**
+     * Writes a booking time through a character buffer, without creating a String
+     */
+    public static class Serializer extends LocalDateTimeSerializer {
+
+        public Serializer() {
+            super(FORMATTER);
+        }
+
+        @Override
+        public void serialize(final LocalDateTime time, final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+            final char[] chars = new char[LENGTH];
+            if (format(time, chars, 0)) {
+                generator.writeString(chars, 0, LENGTH);
+            } else {
+                super.serialize(time, generator, provider);
+            }
+        }
+
+        /**
+         * The format is fixed, a property format would replace this serializer with the default one
+         */
+        @Override
+        public JsonSerializer<?> createContextual(final SerializerProvider provider, final BeanProperty property) {
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package org.simple.booking.service.domain;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The bookable frame, working days and hours, breaks, holidays and timeslot lengths of a resource calendar.
+ * The workday start and end are the hours of the workdays without their own in the working hours.
+ */
+@Getter
+@Builder
+@ToString
+public class CalendarSettings {
+
+    private final LocalDate timeFrameStart;
+    private final LocalDate timeFrameEnd;
+    private final LocalTime workdayStart;
+    private final LocalTime workdayEnd;
+    @Builder.Default
+    private final Set<DayOfWeek> workdays = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+    @Builder.Default
+    private final Map<DayOfWeek, TimeRange> workingHours = Map.of();
+    @Builder.Default
+    private final List<TimeRange> breaks = List.of();
+    @Builder.Default
+    private final Set<LocalDate> holidays = Set.of();
+    private final int timeSlotMinDuration;
+    private final int timeSlotMaxDuration;
+    @Builder.Default
+    private final int timeSlotGranularity = 30;
+
+    public TimeRange getWorkingHours(final DayOfWeek dayOfWeek) {
+        final TimeRange hours = workingHours.get(dayOfWeek);
+        return hours != null ? hours : new TimeRange(workdayStart, workdayEnd);
+    }
+
+}
@@ -2,19 +2,41 @@ package org.simple.booking.service.domain;
 
 public class Constants {
 
+    public static final String DEFAULT_RESOURCE = "default";
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String CLIENT_ID = "X-Client-Id";
+
     public static final String DOT = ".";
     public static final String END = " end: ";
     public static final String START = " start: ";
 
     public static final String HOURS = " hours";
     public static final String MINUTES = " minutes";
+    public static final String EVERY = "every ";
+    public static final String FROM_MIDNIGHT = " from midnight";
     public static final String MINIMUM_BOOKABLE_TIMESLOT = "Invalid booking, the minimum bookable timeslot: ";
     public static final String BOOKING_ON_WEEKEND = "Invalid booking, booking can be done only on weekdays.";
+    public static final String BOOKING_ON_HOLIDAY = "Invalid booking, booking cannot be done on a holiday: ";
+    public static final String BOOKING_DURING_BREAK = "Invalid booking, the passed booking overlaps a break,";
     public static final String MAXIMUM_BOOKABLE_TIMESLOT = "Invalid booking, the maximum bookable timeslot: ";
     public static final String BOOKING_BEYOND_THE_WORKING_HOURS = "Invalid booking, the passed booking beyond the working hours,";
     public static final String BOOKING_BEYOND_THE_BOOKABLE_TIME_FRAME = "Invalid booking, the passed booking beyond the bookable timeframe,";
     public static final String INVALID_TIMESLOT_LENGTH = "Invalid booking, the timeslot length can only be integer multiples of the minimum bookable timeslot: ";
-    public static final String INVALID_TIMESLOT_START = "Invalid booking, booked timeslot can only start from :00 or :30.";
+    public static final String INVALID_TIMESLOT_START = "Invalid booking, booked timeslot can only start from ";
     public static final String NO_BOOKED_TIMESLOT_FOUND = "No booked timeslot found for the provided data: ";
+    public static final String NO_FREE_TIMESLOT_FOUND = "No free timeslot found in the bookable timeframe for the length: ";
+    public static final String INVALID_LIMIT = "Invalid request, the limit has to be a positive number: ";
     public static final String OVERLAPPING_BOOKING = "Invalid request, the passed timeslot overlaps with a booked one: ";
+    public static final String OVERLAPPING_BATCH_BOOKING = "Invalid request, the passed timeslot overlaps with another booking of the batch: ";
+    public static final String INVALID_BATCH_SIZE = "Invalid request, the number of bookings in a batch has to be between 1 and ";
+    public static final String BATCH_ACROSS_NODES = "Invalid request, the resources of a batch have to be owned by the same node: ";
+    public static final String IDEMPOTENCY_KEY_REUSED = "Invalid request, the idempotency key was already used for another booking: ";
+    public static final String VALUE_TOO_LONG = "Invalid request, the client and the resource can be at most this many bytes long in UTF-8: ";
+    public static final String TOO_MANY_RESOURCES = "Invalid request, the resource is not configured and the number of unconfigured resources reached its limit: ";
+    public static final String NOT_PERSISTED = "Failed request, the booking could not be persisted: ";
+    public static final String RATE_LIMIT_EXCEEDED = "Too many requests, the rate limit of the client is exceeded, retry after seconds: ";
+    public static final String SERVICE_OVERLOADED = "The service is overloaded, retry after seconds: ";
+    public static final String OWNER_NOT_REACHABLE = "The node owning the resource is not reachable: ";
+    public static final String OWNER_NOT_ANSWERING = "The node owning the resource did not answer in time, the outcome of the request is unknown: ";
+    public static final String NOT_OWNER = "The resource is owned by another node: ";
 }
@@ -0,0 +1,102 @@
+package org.simple.booking.service.domain;
+
+import static org.simple.booking.service.domain.Constants.DOT;
+import static org.simple.booking.service.domain.Constants.END;
+import static org.simple.booking.service.domain.Constants.EVERY;
+import static org.simple.booking.service.domain.Constants.FROM_MIDNIGHT;
+import static org.simple.booking.service.domain.Constants.HOURS;
+import static org.simple.booking.service.domain.Constants.MINUTES;
+import static org.simple.booking.service.domain.Constants.START;
+
+/**
+ * The reasons a request is rejected for, named after their messages in Constants.
+ * INVALID_REQUEST stands for the bean validation failures of the request body.
+ * A rejection only keeps the detail of its message, which is rendered when the response is written:
+ * the CalendarSettings of the broken rule, the TimeRange of the working hours or the break,
+ * the overlapping Booking, the rejected value, or the seconds to wait before a retry.
+ */
+public enum RejectionReason {
+    INVALID_REQUEST,
+    VALUE_TOO_LONG,
+    MINIMUM_BOOKABLE_TIMESLOT,
+    BOOKING_ON_WEEKEND,
+    BOOKING_ON_HOLIDAY,
+    BOOKING_DURING_BREAK,
+    MAXIMUM_BOOKABLE_TIMESLOT,
+    BOOKING_BEYOND_THE_WORKING_HOURS,
+    BOOKING_BEYOND_THE_BOOKABLE_TIME_FRAME,
+    INVALID_TIMESLOT_LENGTH,
+    INVALID_TIMESLOT_START,
+    NO_BOOKED_TIMESLOT_FOUND,
+    NO_FREE_TIMESLOT_FOUND,
+    INVALID_LIMIT,
+    OVERLAPPING_BOOKING,
+    OVERLAPPING_BATCH_BOOKING,
+    INVALID_BATCH_SIZE,
+    BATCH_ACROSS_NODES,
+    IDEMPOTENCY_KEY_REUSED,
+    TOO_MANY_RESOURCES,
+    NOT_PERSISTED,
+    RATE_LIMIT_EXCEEDED,
+    SERVICE_OVERLOADED;
+
+    public String getMessage(final Object detail) {
+        return switch (this) {
+            case INVALID_REQUEST -> String.valueOf(detail);
+            case VALUE_TOO_LONG -> Constants.VALUE_TOO_LONG + detail;
+            case MINIMUM_BOOKABLE_TIMESLOT -> Constants.MINIMUM_BOOKABLE_TIMESLOT + settings(detail).getTimeSlotMinDuration() + MINUTES + DOT;
+            case BOOKING_ON_WEEKEND -> Constants.BOOKING_ON_WEEKEND;
+            case MAXIMUM_BOOKABLE_TIMESLOT -> Constants.MAXIMUM_BOOKABLE_TIMESLOT + settings(detail).getTimeSlotMaxDuration() / 60 + HOURS + DOT;
+            case BOOKING_ON_HOLIDAY -> Constants.BOOKING_ON_HOLIDAY + detail + DOT;
+            case BOOKING_DURING_BREAK -> Constants.BOOKING_DURING_BREAK + START + timeRange(detail).start() + END + timeRange(detail).end() + DOT;
+            case BOOKING_BEYOND_THE_WORKING_HOURS -> Constants.BOOKING_BEYOND_THE_WORKING_HOURS
+                    + START + timeRange(detail).start() + END + timeRange(detail).end() + DOT;
+            case BOOKING_BEYOND_THE_BOOKABLE_TIME_FRAME -> Constants.BOOKING_BEYOND_THE_BOOKABLE_TIME_FRAME
+                    + START + settings(detail).getTimeFrameStart() + END + settings(detail).getTimeFrameEnd() + DOT;
+            case INVALID_TIMESLOT_LENGTH -> Constants.INVALID_TIMESLOT_LENGTH + settings(detail).getTimeSlotMinDuration() + MINUTES + DOT;
+            case INVALID_TIMESLOT_START -> Constants.INVALID_TIMESLOT_START + getStartMinutes(settings(detail).getTimeSlotGranularity()) + DOT;
+            case NO_BOOKED_TIMESLOT_FOUND -> Constants.NO_BOOKED_TIMESLOT_FOUND + detail;
+            case NO_FREE_TIMESLOT_FOUND -> Constants.NO_FREE_TIMESLOT_FOUND + detail + MINUTES + DOT;
+            case INVALID_LIMIT -> Constants.INVALID_LIMIT + detail;
+            case OVERLAPPING_BOOKING -> Constants.OVERLAPPING_BOOKING + booking(detail).getStart() + END + booking(detail).getEnd();
+            case OVERLAPPING_BATCH_BOOKING -> Constants.OVERLAPPING_BATCH_BOOKING + booking(detail).getStart() + END + booking(detail).getEnd();
+            case INVALID_BATCH_SIZE -> Constants.INVALID_BATCH_SIZE + detail;
+            case BATCH_ACROSS_NODES -> Constants.BATCH_ACROSS_NODES + detail;
+            case IDEMPOTENCY_KEY_REUSED -> Constants.IDEMPOTENCY_KEY_REUSED + detail;
+            case TOO_MANY_RESOURCES -> Constants.TOO_MANY_RESOURCES + detail;
+            case NOT_PERSISTED -> Constants.NOT_PERSISTED + detail;
+            case RATE_LIMIT_EXCEEDED -> Constants.RATE_LIMIT_EXCEEDED + detail;
+            case SERVICE_OVERLOADED -> Constants.SERVICE_OVERLOADED + detail;
+        };
+    }
+
+    private static CalendarSettings settings(final Object detail) {
+        return (CalendarSettings) detail;
+    }
+
+    private static TimeRange timeRange(final Object detail) {
+        return (TimeRange) detail;
+    }
+
+    /**
+     * The minutes of the hour a timeslot can start at, like :00 or :30, if the granularity divides the hour
+     */
+    private static String getStartMinutes(final int granularity) {
+        if (60 % granularity != 0) {
+            return EVERY + granularity + MINUTES + FROM_MIDNIGHT;
+        }
+        final StringBuilder minutes = new StringBuilder();
+        for (int minute = 0; minute < 60; minute += granularity) {
+            if (minute > 0) {
+                minutes.append(minute + granularity < 60 ? ", " : " or ");
+            }
+            minutes.append(String.format(":%02d", minute));
+        }
+        return minutes.toString();
+    }
+
+    private static Booking booking(final Object detail) {
+        return (Booking) detail;
+    }
+
+}
@@ -0,0 +1,15 @@
+package org.simple.booking.service.domain;
+
+import java.time.LocalTime;
+
+/**
+ * A range of the day, the working hours or a break, the end is exclusive
+ */
+public record TimeRange(LocalTime start, LocalTime end) {
+
+    @Override
+    public String toString() {
+        return start + "-" + end;
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.simple.booking.service.domain;
+
+import lombok.Getter;
+import org.simple.booking.service.domain.exception.BookingBadRequestException;
+
+/**
+ * The outcome of a booking validation. A rejection only records its reason and the detail of its message,
+ * so a caller validating many bookings resets and passes the same instance to every validation.
+ */
+@Getter
+public class ValidationResult {
+
+    private RejectionReason reason;
+    private Object detail;
+
+    public boolean isValid() {
+        return reason == null;
+    }
+
+    public ValidationResult reset() {
+        reason = null;
+        detail = null;
+        return this;
+    }
+
+    /**
+     * Records the rejection and returns false, so a check can end with it
+     */
+    public boolean reject(final RejectionReason reason, final Object detail) {
+        this.reason = reason;
+        this.detail = detail;
+        return false;
+    }
+
+    public String getMessage() {
+        return reason.getMessage(detail);
+    }
+
+    public void throwIfRejected() {
+        if (reason != null) {
+            throw new BookingBadRequestException(reason, detail);
+        }
+    }
+
+}
@@ -1,9 +1,27 @@
 package org.simple.booking.service.domain.exception;
 
+import lombok.Getter;
+import org.simple.booking.service.domain.RejectionReason;
+
+/**
+ * Carries a rejection to the exception mapper. The stack trace is never captured and the message
+ * is only rendered from the reason and its detail when the response is written.
+ */
+@Getter
 public class BookingBadRequestException extends RuntimeException {
 
-    public BookingBadRequestException(final String exceptionMsg) {
-        super(exceptionMsg);
+    private final RejectionReason reason;
+    private final transient Object detail;
+
+    public BookingBadRequestException(final RejectionReason reason, final Object detail) {
+        super(null, null, false, false);
+        this.reason = reason;
+        this.detail = detail;
+    }
+
+    @Override
+    public String getMessage() {
+        return reason.getMessage(detail);
     }
 
 }
@@ -1,141 +1,664 @@
 package org.simple.booking.service.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.BookingBatchItem;
+import org.simple.booking.service.domain.BookingBatchResult;
+import org.simple.booking.service.domain.BookingEventType;
+import org.simple.booking.service.domain.CalendarSettings;
+import org.simple.booking.service.domain.RejectionReason;
+import org.simple.booking.service.domain.ValidationResult;
 import org.simple.booking.service.domain.exception.BookingBadRequestException;
+import org.simple.booking.service.service.event.BookingEventService;
+import org.simple.booking.service.service.idempotency.IdempotencyService;
+import org.simple.booking.service.service.metrics.BookingMetrics;
+import org.simple.booking.service.service.metrics.TimedStep;
+import org.simple.booking.service.service.persistence.BookingPersistenceService;
+import org.simple.booking.service.service.store.EpochMinutes;
+import org.simple.booking.service.service.store.FreeGapIndex;
+import org.simple.booking.service.service.store.ResourceCalendar;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Service;
 
-import java.time.DayOfWeek;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import static org.simple.booking.service.domain.Constants.NO_BOOKED_TIMESLOT_FOUND;
-
 @Service
 public class BookingService {
 
-    @Value("${bookable.frame.start:#{T(java.time.LocalDate).now()}}")
-    @DateTimeFormat(pattern = "yyyy-MM-dd")
-    private LocalDate timeFrameStart;
-    @Value("${bookable.frame.end:#{T(java.time.LocalDate).now().plusDays(7)}}")
-    @DateTimeFormat(pattern = "yyyy-MM-dd")
-    private LocalDate timeFrameEnd;
-    @Value("${bookable.workday.start:09:00}")
-    @DateTimeFormat(pattern = "HH:mm")
-    private LocalTime workdayStart;
-    @Value("${bookable.workday.end:17:00}")
-    @DateTimeFormat(pattern = "HH:mm")
-    private LocalTime workdayEnd;
-    @Value("${bookable.time-slot.duration.min-minutes:30}")
-    private int timeSlotMinDuration;
-
     @Autowired
     private TimeSlotService timeSlotService;
     @Autowired
     private BookingValidator bookingValidator;
+    @Autowired
+    private BookingPersistenceService bookingPersistenceService;
+    @Autowired
+    private BookingEventService bookingEventService;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private BookingMetrics bookingMetrics;
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Value("${bookable.batch.max-size:10000}")
+    private int maxBatchSize;
+    @Value("${bookable.free-slot-parallelism:0}")
+    private int freeSlotParallelism;
+    @Value("${bookable.free-slot-min-days-per-task:32}")
+    private int freeSlotMinDaysPerTask;
+
+    private ForkJoinPool freeSlotPool;
+
+    /**
+     * The pool computing the free timeslots of the long frames, one thread per core by default.
+     * Without a second thread every frame is computed by the calling thread.
+     */
+    @PostConstruct
+    private void init() {
+        final int parallelism = freeSlotParallelism > 0 ? freeSlotParallelism : Runtime.getRuntime().availableProcessors();
+        freeSlotPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    @PreDestroy
+    private void close() {
+        if (freeSlotPool != null) {
+            freeSlotPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Registers the booking once per idempotency key, a retry with the same key gets the booking registered first
+     */
+    public Booking registerBooking(final Booking booking, final String idempotencyKey) {
+        return idempotencyService.register(idempotencyKey, booking, () -> registerBooking(booking));
+    }
 
     public Booking registerBooking(final Booking booking) {
-        bookingValidator.validateBooking(booking);
+        final long time = bookingMetrics.start();
+        final ValidationResult result = new ValidationResult();
+        bookingValidator.validateTimeSlot(booking, result).throwIfRejected();
 
+        final ResourceCalendar calendar = timeSlotService.getCalendar(booking.getResource());
         // The only purpose of this part is returning an uuid
-        final Booking persistedBooking = getBookingToPersist(booking);
-        timeSlotService.getTimeSlotStore()
-                       .add(persistedBooking);
+        final Booking bookingToPersist = getBookingToPersist(booking, calendar.getResource());
+        final ByteBuffer record = bookingPersistenceService.encodeBooked(bookingToPersist);
+        final CompletableFuture<Booking> logged = calendar.executeLocked(booking, () -> {
+            bookingValidator.checkOverLap(booking, result).throwIfRejected();
 
+            calendar.addBooking(bookingToPersist);
+            bookingEventService.publish(BookingEventType.BOOKED, bookingToPersist);
+
+            return bookingPersistenceService.log(record, bookingToPersist);
+        });
+        final Booking persistedBooking = awaitLogged(logged, calendar, List.of(bookingToPersist), () -> unregister(calendar, bookingToPersist));
+        bookingMetrics.lap(TimedStep.REGISTER_BOOKING, time);
         return persistedBooking;
     }
 
-    public Booking getTimeSlotByTime(final LocalDateTime specifiedTime) {
-        return timeSlotService.getTimeSlotStore().stream()
-                              .filter(booking -> filterTimeSlotByDateTime(specifiedTime, booking))
-                              .findFirst()
-                              .orElseThrow(() -> new BookingBadRequestException(NO_BOOKED_TIMESLOT_FOUND + specifiedTime));
+    /**
+     * Registers the bookings of the batch. Every booking is validated on its own, then the bookings of each calendar
+     * are sorted by start and checked against each other and the store in one sweep, while the days of the whole
+     * batch are locked. In atomic mode nothing is committed if any of the bookings is invalid,
+     * otherwise the valid bookings are committed and the invalid ones are reported.
+     * The same holds for the bookings whose log record cannot be written, they are undone after the commit.
+     */
+    public BookingBatchResult registerBookings(final List<Booking> bookings, final boolean atomic) {
+        final long time = bookingMetrics.start();
+        if (bookings.isEmpty() || bookings.size() > maxBatchSize) {
+            throw new BookingBadRequestException(RejectionReason.INVALID_BATCH_SIZE, maxBatchSize);
+        }
+        final List<List<String>> errors = new ArrayList<>(bookings.size());
+        final Map<ResourceCalendar, List<Integer>> candidatesByCalendar = new TreeMap<>(Comparator.comparing(ResourceCalendar::getResource));
+        final ValidationResult result = new ValidationResult();
+        for (int i = 0; i < bookings.size(); i++) {
+            final List<String> bookingErrors = validateBatchBooking(bookings.get(i), result.reset());
+            errors.add(bookingErrors);
+            if (bookingErrors.isEmpty()) {
+                candidatesByCalendar.computeIfAbsent(timeSlotService.getCalendar(bookings.get(i).getResource()), calendar -> new ArrayList<>())
+                                    .add(i);
+            }
+        }
+        candidatesByCalendar.values().forEach(candidates -> rejectOverlappingCandidates(bookings, candidates, errors));
+
+        final Booking[] persistedBookings = new Booking[bookings.size()];
+        if (!atomic || errors.stream().allMatch(List::isEmpty)) {
+            final Booking[] bookingsToPersist = new Booking[bookings.size()];
+            final ByteBuffer[] records = new ByteBuffer[bookings.size()];
+            candidatesByCalendar.forEach((calendar, candidates) -> candidates.forEach(index -> {
+                bookingsToPersist[index] = getBookingToPersist(bookings.get(index), calendar.getResource());
+                records[index] = bookingPersistenceService.encodeBooked(bookingsToPersist[index]);
+            }));
+            final Map<Integer, CompletableFuture<Booking>> loggedBookings = executeLocked(new ArrayList<>(candidatesByCalendar.entrySet()), 0, bookings, () -> {
+                candidatesByCalendar.forEach((calendar, candidates) -> rejectBookedCandidates(calendar, bookings, candidates, errors));
+                if (atomic && errors.stream().anyMatch(bookingErrors -> !bookingErrors.isEmpty())) {
+                    return Map.of();
+                }
+                final Map<Integer, CompletableFuture<Booking>> logged = new TreeMap<>();
+                candidatesByCalendar.forEach((calendar, candidates) -> candidates.forEach(index -> {
+                    persistedBookings[index] = bookingsToPersist[index];
+                    calendar.addBooking(persistedBookings[index]);
+                    bookingEventService.publish(BookingEventType.BOOKED, persistedBookings[index]);
+                    logged.put(index, bookingPersistenceService.log(records[index], persistedBookings[index]));
+                }));
+                return logged;
+            });
+            awaitLogged(loggedBookings, persistedBookings, errors, atomic);
+        }
+
+        final List<BookingBatchItem> items = IntStream.range(0, bookings.size())
+                                                      .mapToObj(i -> BookingBatchItem.builder()
+                                                                                     .index(i)
+                                                                                     .booking(persistedBookings[i] != null ? persistedBookings[i] : bookings.get(i))
+                                                                                     .errors(errors.get(i))
+                                                                                     .build())
+                                                      .collect(Collectors.toList());
+        bookingMetrics.lap(TimedStep.REGISTER_BOOKINGS, time);
+        return BookingBatchResult.builder()
+                                 .atomic(atomic)
+                                 .committed((int) items.stream().filter(item -> persistedBookings[item.getIndex()] != null).count())
+                                 .rejected((int) errors.stream().filter(bookingErrors -> !bookingErrors.isEmpty()).count())
+                                 .items(items)
+                                 .build();
     }
 
-    public List<Booking> getBookingsByTimeFrame(final LocalDateTime start, final LocalDateTime end) {
-        return timeSlotService.getTimeSlotStore().stream()
-                              .filter(booking -> filterTimeSlotByTimeFrame(start, end, booking))
-                              .collect(Collectors.toList());
+    /**
+     * Cancels the booking with the id, its timeslot becomes free right away
+     */
+    public Booking cancelBooking(final String resource, final String id) {
+        final long time = bookingMetrics.start();
+        final ResourceCalendar calendar = timeSlotService.getCalendar(resource);
+        final Booking[] cancelled = new Booking[1];
+        final CompletableFuture<Booking> logged = executeLocked(calendar, id, null, booking -> {
+            final ByteBuffer record = bookingPersistenceService.encodeCancelled(booking);
+            cancelled[0] = booking;
+            calendar.removeBooking(booking);
+            bookingEventService.publish(BookingEventType.CANCELLED, booking);
+            return bookingPersistenceService.log(record, booking);
+        });
+        final Booking cancelledBooking = awaitLogged(logged, calendar, List.of(cancelled[0]), () -> {
+            if (calendar.getTimeSlotStore().findOverlapping(cancelled[0].getStart(), cancelled[0].getEnd()).isEmpty()
+                    && calendar.addBooking(cancelled[0])) {
+                bookingEventService.publish(BookingEventType.BOOKED, cancelled[0]);
+            }
+        });
+        bookingMetrics.lap(TimedStep.CANCEL_BOOKING, time);
+        return cancelledBooking;
     }
 
-    public List<Booking> getBookingsByClient(final String client) {
-        return timeSlotService.getTimeSlotStore()
-                              .stream()
-                              .filter(booking -> client.equals(booking.getClient()))
-                              .collect(Collectors.toList());
+    /**
+     * Moves the booking with the id to the start and end of the passed timeslot, keeping its id and client.
+     * The new timeslot is validated like a new booking, but it can overlap the booking being moved.
+     * The days of both timeslots are locked, so the booking is never lost or doubled by a concurrent request.
+     */
+    public Booking rescheduleBooking(final String resource, final String id, final LocalDateTime start, final LocalDateTime end) {
+        final long time = bookingMetrics.start();
+        final ResourceCalendar calendar = timeSlotService.getCalendar(resource);
+        final Booking timeSlot = buildEmptyTimeSlot(calendar.getResource(), start, end);
+        final ValidationResult result = new ValidationResult();
+        bookingValidator.validateTimeSlot(timeSlot, result).throwIfRejected();
+
+        // The booking before and after the move
+        final Booking[] move = new Booking[2];
+        final CompletableFuture<Booking> logged = executeLocked(calendar, id, timeSlot, booking -> {
+            bookingValidator.checkOverLap(timeSlot, booking.getId(), result).throwIfRejected();
+            final Booking movedBooking = Booking.builder()
+                                                .id(booking.getId())
+                                                .start(start)
+                                                .end(end)
+                                                .client(booking.getClient())
+                                                .resource(calendar.getResource())
+                                                .build();
+            final ByteBuffer record = bookingPersistenceService.encodeRescheduled(movedBooking);
+            move[0] = booking;
+            move[1] = movedBooking;
+            calendar.moveBooking(booking, movedBooking);
+            bookingEventService.publish(BookingEventType.RESCHEDULED, movedBooking);
+            return bookingPersistenceService.log(record, movedBooking);
+        });
+        final Booking rescheduledBooking = awaitLogged(logged, calendar, List.of(move[0], move[1]), () -> {
+            final Optional<Booking> current = calendar.getTimeSlotStore().findById(id).filter(booking -> booking.getStart().equals(start));
+            if (current.isPresent() && calendar.getTimeSlotStore().findOverlapping(move[0].getStart(), move[0].getEnd(), id).isEmpty()) {
+                calendar.moveBooking(current.get(), move[0]);
+                bookingEventService.publish(BookingEventType.RESCHEDULED, move[0]);
+            }
+        });
+        bookingMetrics.lap(TimedStep.RESCHEDULE_BOOKING, time);
+        return rescheduledBooking;
     }
 
-    public List<Booking> getBookedTimeSlots() {
-        return new ArrayList(timeSlotService.getTimeSlotStore());
+    public Booking getTimeSlotByTime(final String resource, final LocalDateTime specifiedTime) {
+        return timeSlotService.getCalendar(resource)
+                              .getTimeSlotStore()
+                              .findContaining(specifiedTime)
+                              .orElseThrow(() -> new BookingBadRequestException(RejectionReason.NO_BOOKED_TIMESLOT_FOUND, specifiedTime));
     }
 
-    public List<Booking> getBookedTimeSlotsByTimeFrame(final LocalDateTime start, final LocalDateTime end) {
-        return timeSlotService.getTimeSlotStore().stream()
-                              .filter(booking -> filterTimeSlotByTimeFrame(start, end, booking))
+    public List<Booking> getBookingsByTimeFrame(final String resource, final LocalDateTime start, final LocalDateTime end) {
+        return timeSlotService.getCalendar(resource)
+                              .getTimeSlotStore()
+                              .findWithin(start, end)
                               .collect(Collectors.toList());
     }
 
-    public List<Booking> getFreeTimeSlots() {
-        return Stream.iterate(timeFrameStart, day -> day.plusDays(1))
-                     .limit(ChronoUnit.DAYS.between(timeFrameStart, timeFrameEnd) + 1)
-                     .filter(this::filterWeekdays)
-                     .map(this::mapFreeTimeSlotsToBooking)
-                     .flatMap(List::stream)
-                     .collect(Collectors.toList());
+    /**
+     * All the bounds are optional, for the next page the start of the last returned booking
+     * has to be passed as after
+     */
+    public List<Booking> getBookingsByClient(final String resource, final String client, final LocalDateTime start,
+                                             final LocalDateTime end, final LocalDateTime after, final Integer limit) {
+        return streamBookingsByClient(resource, client, start, end, after, limit)
+                .collect(Collectors.toList());
+    }
+
+    public Stream<Booking> streamBookingsByClient(final String resource, final String client, final LocalDateTime start,
+                                                  final LocalDateTime end, final LocalDateTime after, final Integer limit) {
+        return limit(timeSlotService.getCalendar(resource).getClientIndex().find(client, start, end, after), limit);
+    }
+
+    public List<Booking> getBookedTimeSlots(final String resource, final LocalDateTime after, final Integer limit) {
+        return streamBookedTimeSlots(resource, after, limit)
+                .collect(Collectors.toList());
+    }
+
+    public Stream<Booking> streamBookedTimeSlots(final String resource, final LocalDateTime after, final Integer limit) {
+        return limit(streamBookedTimeSlots(resource, after), limit);
+    }
+
+    /**
+     * Lazily reads the booked timeslots starting after the cursor straight from the store
+     */
+    public Stream<Booking> streamBookedTimeSlots(final String resource, final LocalDateTime after) {
+        return timeSlotService.getCalendar(resource)
+                              .getTimeSlotStore()
+                              .streamAfter(after);
+    }
+
+    public List<Booking> getBookedTimeSlotsByTimeFrame(final String resource, final LocalDateTime start, final LocalDateTime end) {
+        return streamBookedTimeSlotsByTimeFrame(resource, start, end)
+                .collect(Collectors.toList());
+    }
+
+    public Stream<Booking> streamBookedTimeSlotsByTimeFrame(final String resource, final LocalDateTime start, final LocalDateTime end) {
+        return timeSlotService.getCalendar(resource)
+                              .getTimeSlotStore()
+                              .findWithin(start, end);
     }
 
-    public List<Booking> getFreeTimeSlotsByTimeFrame(final LocalDateTime start, final LocalDateTime end) { // 2023-03-10, 2023-03-15
-        return Stream.iterate(timeFrameStart, day -> day.plusDays(1))
-                     .limit(ChronoUnit.DAYS.between(timeFrameStart, timeFrameEnd) + 1)
-                     .filter(this::filterWeekdays)
-                     .map(this::mapFreeTimeSlotsToBooking)
-                     .flatMap(List::stream)
-                     .filter(booking -> filterTimeSlotByTimeFrame(start, end, booking))
-                     .collect(Collectors.toList());
+    /**
+     * Without a limit every day after the cursor is computed anyway, so the days are computed in parallel
+     */
+    public List<Booking> getFreeTimeSlots(final String resource, final LocalDateTime after, final Integer limit) {
+        if (limit != null) {
+            return streamFreeTimeSlots(resource, after, limit)
+                    .collect(Collectors.toList());
+        }
+        final ResourceCalendar calendar = timeSlotService.getCalendar(resource);
+        final CalendarSettings settings = calendar.getSettings();
+        if (after == null) {
+            return collectFreeTimeSlots(calendar, getBookableDays(calendar, settings.getTimeFrameStart(), settings.getTimeFrameEnd()));
+        }
+        return collectFreeTimeSlots(calendar, getBookableDays(calendar, max(settings.getTimeFrameStart(), after.toLocalDate()), settings.getTimeFrameEnd()))
+                .stream()
+                .filter(timeSlot -> timeSlot.getStart().isAfter(after))
+                .collect(Collectors.toList());
     }
 
-    private boolean filterWeekdays(final LocalDate day) {
-        return day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY;
+    public Stream<Booking> streamFreeTimeSlots(final String resource, final LocalDateTime after, final Integer limit) {
+        return limit(streamFreeTimeSlots(resource, after), limit);
+    }
+
+    /**
+     * Lazily generates the free timeslots starting after the cursor, day by day
+     */
+    public Stream<Booking> streamFreeTimeSlots(final String resource, final LocalDateTime after) {
+        final ResourceCalendar calendar = timeSlotService.getCalendar(resource);
+        final CalendarSettings settings = calendar.getSettings();
+        if (after == null) {
+            return getBookableDays(calendar, settings.getTimeFrameStart(), settings.getTimeFrameEnd())
+                    .flatMap(day -> mapFreeTimeSlotsToBooking(calendar, day));
+        }
+        return getBookableDays(calendar, max(settings.getTimeFrameStart(), after.toLocalDate()), settings.getTimeFrameEnd())
+                .flatMap(day -> mapFreeTimeSlotsToBooking(calendar, day))
+                .filter(timeSlot -> timeSlot.getStart().isAfter(after));
     }
 
-    private List<Booking> mapFreeTimeSlotsToBooking(final LocalDate day) {
-        return getFreeTimeSlotsByDay(day.atTime(workdayStart), day.atTime(workdayEnd))
-                .filter(this::filterOverlappingBooking)
+    public List<Booking> getFreeTimeSlotsByTimeFrame(final String resource, final LocalDateTime start, final LocalDateTime end) { // 2023-03-10, 2023-03-15
+        final ResourceCalendar calendar = timeSlotService.getCalendar(resource);
+        final CalendarSettings settings = calendar.getSettings();
+        return collectFreeTimeSlots(calendar, getBookableDays(calendar, max(settings.getTimeFrameStart(), start.toLocalDate()),
+                                                              min(settings.getTimeFrameEnd(), end.toLocalDate())))
+                .stream()
+                .filter(booking -> filterTimeSlotByTimeFrame(start, end, booking))
                 .collect(Collectors.toList());
     }
 
-    private boolean filterOverlappingBooking(final Booking timeSlot) {
-        return timeSlotService.getTimeSlotStore()
-                              .stream()
-                              .noneMatch(booking -> isOverlap(booking, timeSlot));
+    /**
+     * Lazily generates the free timeslots of the timeframe, day by day
+     */
+    public Stream<Booking> streamFreeTimeSlotsByTimeFrame(final String resource, final LocalDateTime start, final LocalDateTime end) {
+        final ResourceCalendar calendar = timeSlotService.getCalendar(resource);
+        final CalendarSettings settings = calendar.getSettings();
+        // Days outside the requested timeframe cannot hold a matching timeslot, so they are not even visited
+        return getBookableDays(calendar, max(settings.getTimeFrameStart(), start.toLocalDate()), min(settings.getTimeFrameEnd(), end.toLocalDate()))
+                .flatMap(day -> mapFreeTimeSlotsToBooking(calendar, day))
+                .filter(booking -> filterTimeSlotByTimeFrame(start, end, booking));
     }
 
-    private Stream<Booking> getFreeTimeSlotsByDay(final LocalDateTime workDayStart, final LocalDateTime workDayEnd) {
-        return Stream.iterate(workDayStart, time -> time.plusMinutes(timeSlotMinDuration))
-                     .limit(workDayStart.until(workDayEnd, ChronoUnit.MINUTES) / timeSlotMinDuration)
-                     .map(startTime -> mapFreeTimeSlots(workDayEnd, startTime));
+    /**
+     * Returns the earliest free timeslot of the given length starting after the cursor, or from the start of the frame
+     */
+    public Booking findNextFreeTimeSlot(final String resource, final int duration, final LocalDateTime after) {
+        return findFreeTimeSlots(resource, duration, after, 1).stream()
+                                                              .findFirst()
+                                                              .orElseThrow(() -> new BookingBadRequestException(RejectionReason.NO_FREE_TIMESLOT_FOUND, duration));
     }
 
-    private Booking mapFreeTimeSlots(final LocalDateTime workDayEnd, final LocalDateTime startTime) {
-        LocalDateTime endTime = startTime.plusMinutes(timeSlotMinDuration);
-        if (endTime.isAfter(workDayEnd)) endTime = workDayEnd;
+    /**
+     * Returns the earliest free timeslots of the given length starting after the cursor, one for every bookable start,
+     * so the candidates of the same gap overlap each other. The days without a long enough gap are skipped by the free gap index.
+     */
+    public List<Booking> findFreeTimeSlots(final String resource, final int duration, final LocalDateTime after, final Integer limit) {
+        final ResourceCalendar calendar = timeSlotService.getCalendar(resource);
+        validateDuration(duration, calendar.getSettings());
+        if (limit != null && limit < 1) {
+            throw new BookingBadRequestException(RejectionReason.INVALID_LIMIT, limit);
+        }
+        final int maxTimeSlots = limit == null ? 1 : limit;
+        final FreeGapIndex freeGaps = calendar.getFreeGaps();
+        final int granularity = calendar.getRules().getGranularity();
+        final LocalDate firstDay = after == null ? calendar.getSettings().getTimeFrameStart() : after.toLocalDate();
+        final int firstMinute = after == null ? 0 : after.getHour() * 60 + after.getMinute() + 1;
+        final List<Booking> timeSlots = new ArrayList<>();
+        for (LocalDate day = freeGaps.findDay(firstDay, duration); day != null && timeSlots.size() < maxTimeSlots;
+             day = freeGaps.findDay(day.plusDays(1), duration)) {
+            for (int start = freeGaps.findStart(day, day.equals(firstDay) ? firstMinute : 0, duration, granularity);
+                 start >= 0 && timeSlots.size() < maxTimeSlots; start = freeGaps.findStart(day, start + 1, duration, granularity)) {
+                final LocalDateTime startTime = day.atStartOfDay().plusMinutes(start);
+                timeSlots.add(buildEmptyTimeSlot(calendar.getResource(), startTime, startTime.plusMinutes(duration)));
+            }
+        }
+        return timeSlots;
+    }
 
-        return buildEmptyTimeSlot(startTime, endTime);
+    /**
+     * Returns the longest free gap of every day of the timeframe with any, the earliest one of the equally long gaps
+     */
+    public List<Booking> getLongestFreeTimeSlots(final String resource, final LocalDate start, final LocalDate end) {
+        final ResourceCalendar calendar = timeSlotService.getCalendar(resource);
+        final CalendarSettings settings = calendar.getSettings();
+        final List<Booking> timeSlots = new ArrayList<>();
+        getBookableDays(calendar, max(settings.getTimeFrameStart(), start), min(settings.getTimeFrameEnd(), end)).forEach(day -> {
+            final int[] gap = calendar.getFreeGaps().findLongestGap(day);
+            if (gap != null) {
+                timeSlots.add(buildEmptyTimeSlot(calendar.getResource(), day.atStartOfDay().plusMinutes(gap[0]),
+                                                 day.atStartOfDay().plusMinutes(gap[1])));
+            }
+        });
+        return timeSlots;
+    }
+
+    private void validateDuration(final int duration, final CalendarSettings settings) {
+        if (duration < settings.getTimeSlotMinDuration()) {
+            throw new BookingBadRequestException(RejectionReason.MINIMUM_BOOKABLE_TIMESLOT, settings);
+        }
+        if (duration > settings.getTimeSlotMaxDuration()) {
+            throw new BookingBadRequestException(RejectionReason.MAXIMUM_BOOKABLE_TIMESLOT, settings);
+        }
+        if (duration % settings.getTimeSlotMinDuration() != 0) {
+            throw new BookingBadRequestException(RejectionReason.INVALID_TIMESLOT_LENGTH, settings);
+        }
+    }
+
+    /**
+     * Waits for the log record of a change of the store. If it could not be written, the change is undone
+     * while the days of the bookings are locked again, as it would be lost on restart, and the failure is thrown.
+     * A booking is only restored to a timeslot which is still free.
+     */
+    private Booking awaitLogged(final CompletableFuture<Booking> logged, final ResourceCalendar calendar, final List<Booking> bookings,
+                                final Runnable undo) {
+        try {
+            return logged.join();
+        } catch (final CompletionException exception) {
+            calendar.executeLocked(bookings, () -> {
+                undo.run();
+                return null;
+            });
+            throw exception;
+        }
     }
 
-    private Booking buildEmptyTimeSlot(final LocalDateTime startTime, final LocalDateTime endTime) {
+    /**
+     * Waits for the log records of the batch. In atomic mode a failed record undoes every booking of the batch
+     * and the failure is thrown, the bookings already logged get a cancellation record, so they are not restored
+     * on restart. Otherwise only the bookings whose record failed are undone, they are reported as rejected.
+     */
+    private void awaitLogged(final Map<Integer, CompletableFuture<Booking>> loggedBookings, final Booking[] persistedBookings,
+                             final List<List<String>> errors, final boolean atomic) {
+        final Map<Integer, CompletionException> failures = new TreeMap<>();
+        loggedBookings.forEach((index, logged) -> {
+            try {
+                logged.join();
+            } catch (final CompletionException exception) {
+                failures.put(index, exception);
+            }
+        });
+        if (failures.isEmpty()) {
+            return;
+        }
+        final List<CompletableFuture<Booking>> cancellations = new ArrayList<>();
+        for (final Integer index : atomic ? loggedBookings.keySet() : failures.keySet()) {
+            final Booking booking = persistedBookings[index];
+            final ResourceCalendar calendar = timeSlotService.getCalendar(booking.getResource());
+            final ByteBuffer record = failures.containsKey(index) ? null : bookingPersistenceService.encodeCancelled(booking);
+            calendar.executeLocked(booking, () -> {
+                unregister(calendar, booking);
+                if (record != null) {
+                    cancellations.add(bookingPersistenceService.log(record, booking));
+                }
+                return null;
+            });
+            persistedBookings[index] = null;
+        }
+        if (atomic) {
+            final CompletionException failure = failures.values().iterator().next();
+            for (final CompletableFuture<Booking> cancellation : cancellations) {
+                try {
+                    cancellation.join();
+                } catch (final CompletionException exception) {
+                    failure.addSuppressed(exception);
+                }
+            }
+            throw failure;
+        }
+        failures.forEach((index, failure) -> {
+            bookingMetrics.rejected(RejectionReason.NOT_PERSISTED);
+            errors.get(index).add(RejectionReason.NOT_PERSISTED.getMessage(failure.getCause().getMessage()));
+        });
+    }
+
+    private void unregister(final ResourceCalendar calendar, final Booking booking) {
+        if (calendar.removeBooking(booking)) {
+            bookingEventService.publish(BookingEventType.CANCELLED, booking);
+        }
+    }
+
+    private List<String> validateBatchBooking(final Booking booking, final ValidationResult result) {
+        final List<String> bookingErrors = new ArrayList<>();
+        validator.validate(booking)
+                 .stream()
+                 .map(ConstraintViolation::getMessage)
+                 .forEach(bookingErrors::add);
+        if (!bookingErrors.isEmpty()) {
+            bookingMetrics.rejected(RejectionReason.INVALID_REQUEST);
+        } else if (!bookingValidator.validateTimeSlot(booking, result).isValid()) {
+            bookingMetrics.rejected(result.getReason());
+            bookingErrors.add(result.getMessage());
+        }
+        return bookingErrors;
+    }
+
+    /**
+     * Sorts the candidates by start and removes the ones overlapping an earlier candidate of the batch
+     */
+    private void rejectOverlappingCandidates(final List<Booking> bookings, final List<Integer> candidates, final List<List<String>> errors) {
+        candidates.sort(Comparator.comparing(index -> bookings.get(index).getStart()));
+        LocalDateTime latestEnd = LocalDateTime.MIN;
+        for (int i = 0; i < candidates.size(); i++) {
+            final Booking booking = bookings.get(candidates.get(i));
+            if (booking.getStart().isBefore(latestEnd)) {
+                bookingMetrics.rejected(RejectionReason.OVERLAPPING_BATCH_BOOKING);
+                errors.get(candidates.get(i)).add(RejectionReason.OVERLAPPING_BATCH_BOOKING.getMessage(booking));
+                candidates.remove(i--);
+            } else {
+                latestEnd = booking.getEnd();
+            }
+        }
+    }
+
+    /**
+     * Removes the candidates overlapping a stored booking, the candidates have to be sorted by start
+     */
+    private void rejectBookedCandidates(final ResourceCalendar calendar, final List<Booking> bookings, final List<Integer> candidates,
+                                        final List<List<String>> errors) {
+        final long[] starts = candidates.stream().mapToLong(index -> EpochMinutes.of(bookings.get(index).getStart())).toArray();
+        final long[] ends = candidates.stream().mapToLong(index -> EpochMinutes.of(bookings.get(index).getEnd())).toArray();
+        final BitSet overlapping = calendar.getTimeSlotStore().findOverlapping(starts, ends);
+        for (int i = overlapping.length() - 1; i >= 0; i = overlapping.previousSetBit(i - 1)) {
+            final Booking booking = bookings.get(candidates.get(i));
+            bookingMetrics.rejected(RejectionReason.OVERLAPPING_BOOKING);
+            errors.get(candidates.get(i)).add(RejectionReason.OVERLAPPING_BOOKING.getMessage(booking));
+            candidates.remove(i);
+        }
+    }
+
+    /**
+     * Locks the days of the candidates calendar by calendar, in the order of the resources, then runs the action
+     */
+    private <T> T executeLocked(final List<Map.Entry<ResourceCalendar, List<Integer>>> candidatesByCalendar, final int position,
+                                final List<Booking> bookings, final Supplier<T> action) {
+        if (position == candidatesByCalendar.size()) {
+            return action.get();
+        }
+        final Map.Entry<ResourceCalendar, List<Integer>> candidates = candidatesByCalendar.get(position);
+        return candidates.getKey().executeLocked(candidates.getValue().stream().map(bookings::get).collect(Collectors.toList()),
+                                                 () -> executeLocked(candidatesByCalendar, position + 1, bookings, action));
+    }
+
+    /**
+     * Runs the action on the booking with the id while its days and the days of the additional timeslot are locked.
+     * A concurrent reschedule can move the booking between the lookup and the locking, then it is looked up again.
+     */
+    private <T> T executeLocked(final ResourceCalendar calendar, final String id, final Booking timeSlot, final Function<Booking, T> action) {
+        while (true) {
+            final Booking booking = calendar.getTimeSlotStore()
+                                            .findById(id)
+                                            .orElseThrow(() -> new BookingBadRequestException(RejectionReason.NO_BOOKED_TIMESLOT_FOUND, id));
+            final Optional<T> result = calendar.executeLocked(timeSlot == null ? List.of(booking) : List.of(booking, timeSlot),
+                                                              () -> calendar.getTimeSlotStore()
+                                                                            .findById(id)
+                                                                            .filter(current -> current.getStart().equals(booking.getStart())
+                                                                                    && current.getEnd().equals(booking.getEnd()))
+                                                                            .map(action));
+            if (result.isPresent()) {
+                return result.get();
+            }
+        }
+    }
+
+    private Stream<Booking> limit(final Stream<Booking> bookings, final Integer limit) {
+        if (limit == null) {
+            return bookings;
+        }
+        if (limit < 1) {
+            throw new BookingBadRequestException(RejectionReason.INVALID_LIMIT, limit);
+        }
+        return bookings.limit(limit);
+    }
+
+    /**
+     * The days of the calendar with any bookable timeslot, the closed days and holidays are skipped
+     */
+    private Stream<LocalDate> getBookableDays(final ResourceCalendar calendar, final LocalDate firstDay, final LocalDate lastDay) {
+        return Stream.iterate(firstDay, day -> day.plusDays(1))
+                     .limit(Math.max(0, ChronoUnit.DAYS.between(firstDay, lastDay) + 1))
+                     .filter(calendar.getRules()::isBookableDay);
+    }
+
+    /**
+     * Collects the free timeslots of the days in order. Every day is computed from its own occupancy bitmap,
+     * without reading the store, so the days of a long range are split into consecutive chunks computed on
+     * the free timeslot pool and joined in order. A range shorter than two chunks of the minimum size
+     * stays on the calling thread, as the tasks would cost more than they save.
+     */
+    private List<Booking> collectFreeTimeSlots(final ResourceCalendar calendar, final Stream<LocalDate> bookableDays) {
+        final List<LocalDate> days = bookableDays.toList();
+        final int chunks = freeSlotPool == null ? 1 : Math.min(freeSlotPool.getParallelism(), days.size() / Math.max(1, freeSlotMinDaysPerTask));
+        if (chunks < 2) {
+            return days.stream()
+                       .flatMap(day -> mapFreeTimeSlotsToBooking(calendar, day))
+                       .collect(Collectors.toList());
+        }
+        final int chunkSize = -Math.floorDiv(-days.size(), chunks);
+        final List<ForkJoinTask<List<Booking>>> tasks = new ArrayList<>(chunks);
+        for (int from = 0; from < days.size(); from += chunkSize) {
+            final List<LocalDate> chunk = days.subList(from, Math.min(days.size(), from + chunkSize));
+            tasks.add(freeSlotPool.submit(() -> chunk.stream()
+                                                     .flatMap(day -> mapFreeTimeSlotsToBooking(calendar, day))
+                                                     .toList()));
+        }
+        final List<Booking> timeSlots = new ArrayList<>();
+        tasks.forEach(task -> timeSlots.addAll(task.join()));
+        return timeSlots;
+    }
+
+    private Stream<Booking> mapFreeTimeSlotsToBooking(final ResourceCalendar calendar, final LocalDate day) {
+        final BitSet bookedSlots = calendar.getOccupancy().getBookedSlots(day);
+        return calendar.getFreeSlotCache()
+                       .get(calendar.getResource(), day, bookedSlots, () -> computeFreeTimeSlots(calendar, day, bookedSlots))
+                       .stream();
+    }
+
+    private List<Booking> computeFreeTimeSlots(final ResourceCalendar calendar, final LocalDate day, final BitSet bookedSlots) {
+        final int slotMinutes = calendar.getRules().getSlotMinutes();
+        final LocalDateTime midnight = day.atStartOfDay();
+        return calendar.getOccupancy()
+                       .getFreeSlots(calendar.getRules().getBookableSlots(day), bookedSlots)
+                       .mapToObj(slot -> {
+                           final LocalDateTime startTime = midnight.plusMinutes((long) slot * slotMinutes);
+                           return buildEmptyTimeSlot(calendar.getResource(), startTime, startTime.plusMinutes(slotMinutes));
+                       })
+                       .toList();
+    }
+
+    private Booking buildEmptyTimeSlot(final String resource, final LocalDateTime startTime, final LocalDateTime endTime) {
         return Booking.builder()
                       .start(startTime)
                       .end(LocalDateTime.from(endTime))
+                      .resource(resource)
                       .build();
     }
 
@@ -143,18 +666,22 @@ public class BookingService {
      * The only purpose of this method is mock the
      * behaviour repository layer (Getting an entity Id)
      */
-    private Booking getBookingToPersist(final Booking booking) {
+    private Booking getBookingToPersist(final Booking booking, final String resource) {
         return Booking.builder()
                       .id(UUID.randomUUID().toString())
                       .start(booking.getStart())
                       .end(booking.getEnd())
                       .client(booking.getClient())
+                      .resource(resource)
                       .build();
     }
 
-    private boolean filterTimeSlotByDateTime(final LocalDateTime specifiedDateTime, final Booking booking) {
-        return (booking.getStart().isBefore(specifiedDateTime) || booking.getStart().equals(specifiedDateTime))
-                && booking.getEnd().isAfter(specifiedDateTime);
+    private LocalDate max(final LocalDate first, final LocalDate second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private LocalDate min(final LocalDate first, final LocalDate second) {
+        return first.isBefore(second) ? first : second;
     }
 
     private boolean filterTimeSlotByTimeFrame(final LocalDateTime start, final LocalDateTime end, final Booking booking) {
@@ -162,8 +689,4 @@ public class BookingService {
                 && booking.getEnd().isBefore(end);
     }
 
-    private boolean isOverlap(final Booking bookedTimeSlot, final Booking slot) {
-        return bookedTimeSlot.getStart().isBefore(slot.getEnd()) && slot.getStart().isBefore(bookedTimeSlot.getEnd());
-    }
-
 }
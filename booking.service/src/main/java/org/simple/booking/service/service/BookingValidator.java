@@ -1,131 +1,131 @@
 package org.simple.booking.service.service;
 
 import org.simple.booking.service.domain.Booking;
-import org.simple.booking.service.domain.exception.BookingBadRequestException;
+import org.simple.booking.service.domain.CalendarSettings;
+import org.simple.booking.service.domain.RejectionReason;
+import org.simple.booking.service.domain.TimeRange;
+import org.simple.booking.service.domain.ValidationResult;
+import org.simple.booking.service.service.metrics.BookingMetrics;
+import org.simple.booking.service.service.metrics.TimedStep;
+import org.simple.booking.service.service.store.CalendarRules;
+import org.simple.booking.service.service.store.EpochMinutes;
+import org.simple.booking.service.service.store.ResourceCalendar;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Service;
 
-import java.time.DayOfWeek;
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
-import static org.simple.booking.service.domain.Constants.BOOKING_ON_WEEKEND;
-import static org.simple.booking.service.domain.Constants.DOT;
-import static org.simple.booking.service.domain.Constants.END;
-import static org.simple.booking.service.domain.Constants.HOURS;
-import static org.simple.booking.service.domain.Constants.INVALID_TIMESLOT_LENGTH;
-import static org.simple.booking.service.domain.Constants.MAXIMUM_BOOKABLE_TIMESLOT;
-import static org.simple.booking.service.domain.Constants.MINIMUM_BOOKABLE_TIMESLOT;
-import static org.simple.booking.service.domain.Constants.MINUTES;
-import static org.simple.booking.service.domain.Constants.BOOKING_BEYOND_THE_BOOKABLE_TIME_FRAME;
-import static org.simple.booking.service.domain.Constants.BOOKING_BEYOND_THE_WORKING_HOURS;
-import static org.simple.booking.service.domain.Constants.INVALID_TIMESLOT_START;
-import static org.simple.booking.service.domain.Constants.OVERLAPPING_BOOKING;
-import static org.simple.booking.service.domain.Constants.START;
-
 @Service
 public class BookingValidator {
 
-    @Value("${bookable.frame.start:#{T(java.time.LocalDate).now()}}")
-    @DateTimeFormat(pattern = "yyyy-MM-dd")
-    private LocalDate timeFrameStart;
-    @Value("${bookable.frame.end:#{T(java.time.LocalDate).now().plusDays(7)}}")
-    @DateTimeFormat(pattern = "yyyy-MM-dd")
-    private LocalDate timeFrameEnd;
-    @Value("${bookable.workday.start:09:00}")
-    @DateTimeFormat(pattern = "HH:mm")
-    private LocalTime workdayStart;
-    @Value("${bookable.workday.end:17:00}")
-    @DateTimeFormat(pattern = "HH:mm")
-    private LocalTime workdayEnd;
-    @Value("${bookable.time-slot.duration.min-minutes:30}")
-    private int timeSlotMinDuration;
-    @Value("${bookable.time-slot.duration.max-minutes:180}")
-    private int timeSlotMaxDuration;
+    // The log records hold the resource and the client prefixed by their length as a short
+    private static final int MAX_VALUE_BYTES = Short.MAX_VALUE;
 
     @Autowired
     private TimeSlotService timeSlotService;
+    @Autowired
+    private BookingMetrics bookingMetrics;
 
     public void validateBooking(final Booking booking) {
-        final long duration = getBookingDuration(booking);
-        checkIfBeyondWorkingHours(booking);
-        checkIfBeyondWorkingDays(booking);
-        checkIfBeyondTheBookableTimeFrame(booking);
-        checkBookingStart(booking.getStart().getMinute(), booking.getStart().getSecond());
-        checkMinLength(duration);
-        checkMaxLength(duration);
-        checkLength(duration);
-        checkOverLap(booking);
+        validateBooking(booking, new ValidationResult()).throwIfRejected();
     }
 
-    private void checkIfBeyondWorkingDays(final Booking booking) {
-        if (booking.getStart().getDayOfWeek() == DayOfWeek.SATURDAY || booking.getStart().getDayOfWeek() == DayOfWeek.SUNDAY) {
-            throw new BookingBadRequestException(BOOKING_ON_WEEKEND);
+    /**
+     * Checks every rule without throwing, the cheap ones first and the lookup in the store last.
+     * Stops at the first broken rule, which is recorded in the passed result.
+     */
+    public ValidationResult validateBooking(final Booking booking, final ValidationResult result) {
+        if (validateTimeSlot(booking, result).isValid()) {
+            checkOverLap(booking, result);
         }
+        return result;
     }
 
-    private void checkMinLength(final long duration) {
-        if (duration < timeSlotMinDuration) {
-            throw new BookingBadRequestException(MINIMUM_BOOKABLE_TIMESLOT + timeSlotMinDuration + MINUTES + DOT);
+    /**
+     * Checks every rule except the overlap, which depends on the current content of the store.
+     * A valid booking is accepted by a lookup in the compiled calendar rules,
+     * the rules are only checked one by one to find the reason of a rejection.
+     */
+    public ValidationResult validateTimeSlot(final Booking booking, final ValidationResult result) {
+        if (isTooLong(booking.getResource()) || isTooLong(booking.getClient())) {
+            result.reject(RejectionReason.VALUE_TOO_LONG, MAX_VALUE_BYTES);
+            return result;
         }
-    }
-
-    private void checkMaxLength(final long duration) {
-        if (duration > timeSlotMaxDuration) {
-            throw new BookingBadRequestException(MAXIMUM_BOOKABLE_TIMESLOT + timeSlotMaxDuration / 60 + HOURS + DOT);
+        final ResourceCalendar calendar = timeSlotService.getCalendar(booking.getResource());
+        final long time = bookingMetrics.start();
+        if (!calendar.getRules().isBookable(booking.getStart(), booking.getEnd())) {
+            findRejectionReason(booking, calendar.getRules(), calendar.getSettings(), result);
         }
+        bookingMetrics.lap(TimedStep.CHECK_CALENDAR_RULES, time);
+        return result;
     }
 
-    private void checkLength(final long duration) {
-        if (duration % timeSlotMinDuration != 0) {
-            throw new BookingBadRequestException(INVALID_TIMESLOT_LENGTH + timeSlotMinDuration + MINUTES + DOT);
+    /**
+     * Records the first broken rule in the order the rules were checked before they were compiled,
+     * the breaks last, or the working hours if the booking does not fit the day in any other way
+     */
+    private void findRejectionReason(final Booking booking, final CalendarRules rules, final CalendarSettings settings,
+                                     final ValidationResult result) {
+        final LocalDateTime start = booking.getStart();
+        final LocalDateTime end = booking.getEnd();
+        final TimeRange hours = settings.getWorkingHours(start.getDayOfWeek());
+        final long duration = EpochMinutes.of(end) - EpochMinutes.of(start);
+        final Optional<LocalDate> holiday = rules.findHoliday(start, end);
+        final Optional<TimeRange> pause = rules.findBreak(start, end);
+        if (!rules.isWithinWorkingHours(start, end)) {
+            result.reject(RejectionReason.BOOKING_BEYOND_THE_WORKING_HOURS, hours);
+        } else if (!rules.isWorkday(start.getDayOfWeek())) {
+            result.reject(RejectionReason.BOOKING_ON_WEEKEND, null);
+        } else if (holiday.isPresent()) {
+            result.reject(RejectionReason.BOOKING_ON_HOLIDAY, holiday.get());
+        } else if (!rules.isWithinTimeFrame(start, end)) {
+            result.reject(RejectionReason.BOOKING_BEYOND_THE_BOOKABLE_TIME_FRAME, settings);
+        } else if (!rules.isOnGranularity(start)) {
+            result.reject(RejectionReason.INVALID_TIMESLOT_START, settings);
+        } else if (duration < settings.getTimeSlotMinDuration()) {
+            result.reject(RejectionReason.MINIMUM_BOOKABLE_TIMESLOT, settings);
+        } else if (duration > settings.getTimeSlotMaxDuration()) {
+            result.reject(RejectionReason.MAXIMUM_BOOKABLE_TIMESLOT, settings);
+        } else if (duration % settings.getTimeSlotMinDuration() != 0) {
+            result.reject(RejectionReason.INVALID_TIMESLOT_LENGTH, settings);
+        } else if (pause.isPresent()) {
+            result.reject(RejectionReason.BOOKING_DURING_BREAK, pause.get());
+        } else {
+            result.reject(RejectionReason.BOOKING_BEYOND_THE_WORKING_HOURS, hours);
         }
     }
 
-    private void checkIfBeyondTheBookableTimeFrame(final Booking booking) {
-        if (booking.getStart().toLocalDate().isBefore(timeFrameStart) ||
-                booking.getEnd().toLocalDate().isAfter(timeFrameEnd)) {
-            throw new BookingBadRequestException(BOOKING_BEYOND_THE_BOOKABLE_TIME_FRAME + START + timeFrameStart + END + timeFrameEnd + DOT);
-        }
+    /**
+     * Whether the value does not fit a log record, only a value which may be too long is encoded
+     */
+    private static boolean isTooLong(final String value) {
+        return value != null && value.length() > MAX_VALUE_BYTES / 3 && value.getBytes(StandardCharsets.UTF_8).length > MAX_VALUE_BYTES;
     }
 
-    private void checkIfBeyondWorkingHours(final Booking booking) {
-        if (booking.getStart().toLocalTime().isBefore(workdayStart) ||
-                booking.getEnd().toLocalTime().isAfter(workdayEnd)) {
-            throw new BookingBadRequestException(BOOKING_BEYOND_THE_WORKING_HOURS + START + workdayStart + END + workdayEnd + DOT);
-        }
+    public ValidationResult checkOverLap(final Booking booking, final ValidationResult result) {
+        return checkOverLap(booking, null, result);
     }
 
-    private void checkBookingStart(final int minute, final int second) {
-        if ((minute != 0 || second != 0) && (minute != 30 || second != 0)) {
-            throw new BookingBadRequestException(INVALID_TIMESLOT_START);
-        }
-    }
-
-    private void checkOverLap(final Booking booking) {
-        final Optional<Booking> overlappingBooking = getOverlappingBooking(booking);
+    /**
+     * Checks the overlap with every stored booking except the one with the ignored id, the booking being rescheduled
+     */
+    public ValidationResult checkOverLap(final Booking booking, final String ignoredId, final ValidationResult result) {
+        final long time = bookingMetrics.start();
+        final Optional<Booking> overlappingBooking = getOverlappingBooking(booking, ignoredId);
+        bookingMetrics.lap(TimedStep.CHECK_OVERLAP, time);
         if (overlappingBooking.isPresent()) {
-            throw new BookingBadRequestException(OVERLAPPING_BOOKING + overlappingBooking.get().getStart() + END + overlappingBooking.get().getEnd());
+            result.reject(RejectionReason.OVERLAPPING_BOOKING, overlappingBooking.get());
         }
+        return result;
     }
 
-    private Optional<Booking> getOverlappingBooking(final Booking booking) {
-        return timeSlotService.getTimeSlotStore()
-                              .stream()
-                              .filter(b -> isOverlap(booking, b))
-                              .findFirst();
-    }
-
-    private boolean isOverlap(final Booking bookedTimeSlot, final Booking slot) {
-        return bookedTimeSlot.getStart().isBefore(slot.getEnd()) && slot.getStart().isBefore(bookedTimeSlot.getEnd());
-    }
-
-    private long getBookingDuration(final Booking booking) {
-        return Duration.between(booking.getStart(), booking.getEnd()).toMinutes();
+    private Optional<Booking> getOverlappingBooking(final Booking booking, final String ignoredId) {
+        return timeSlotService.getCalendar(booking.getResource())
+                              .getTimeSlotStore()
+                              .findOverlapping(booking.getStart(), booking.getEnd(), ignoredId);
     }
 
 }
@@ -0,0 +1,208 @@
+package org.simple.booking.service.service;
+
+import jakarta.annotation.PostConstruct;
+import org.simple.booking.service.domain.CalendarSettings;
+import org.simple.booking.service.domain.TimeRange;
+import org.simple.booking.service.service.store.CalendarRules;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
+
+/**
+ * Resolves the calendar settings of the resources. The bookable.* properties are the defaults,
+ * a resource can override any of them under bookable.resources.{resource}.*, for example
+ * bookable.resources.room-1.workday.start. The settings are resolved on first use and cached.
+ * A weekday can have its own hours under workday.hours.{weekday}, for example workday.hours.friday: '09:00-13:00',
+ * the lists, the workdays, breaks and holidays, are comma separated.
+ * The configured resources are the default one and the ones having any property under bookable.resources.
+ * The free timeslots are counted from midnight, so the minimum length has to divide the day and the opening
+ * of every workday, a configuration breaking it fails the startup instead of shifting the free timeslots.
+ */
+@Service
+public class CalendarSettingsService {
+
+    private static final String DEFAULT_PREFIX = "bookable.";
+    private static final String RESOURCE_PREFIX = "bookable.resources.";
+    private static final String WORKING_HOURS = "workday.hours.";
+    private static final String LIST_SEPARATOR = ",";
+    private static final String RANGE_SEPARATOR = "-";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Value("${bookable.frame.start:#{T(java.time.LocalDate).now()}}")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate timeFrameStart;
+    @Value("${bookable.frame.end:#{T(java.time.LocalDate).now().plusDays(7)}}")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate timeFrameEnd;
+    @Value("${bookable.workday.start:09:00}")
+    @DateTimeFormat(pattern = "HH:mm")
+    private LocalTime workdayStart;
+    @Value("${bookable.workday.end:17:00}")
+    @DateTimeFormat(pattern = "HH:mm")
+    private LocalTime workdayEnd;
+    @Value("${bookable.time-slot.duration.min-minutes:30}")
+    private int timeSlotMinDuration;
+    @Value("${bookable.time-slot.duration.max-minutes:180}")
+    private int timeSlotMaxDuration;
+    @Value("${bookable.time-slot.granularity-minutes:30}")
+    private int timeSlotGranularity;
+    @Value("${bookable.workdays:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}")
+    private String workdays;
+    @Value("${bookable.breaks:}")
+    private String breaks;
+    @Value("${bookable.holidays:}")
+    private String holidays;
+
+    @Autowired
+    private Environment environment;
+
+    private Map<String, CalendarSettings> settingsByResource;
+    private Set<String> configuredResources;
+
+    @PostConstruct
+    private void init() {
+        settingsByResource = new ConcurrentHashMap<>();
+        configuredResources = loadConfiguredResources();
+        configuredResources.forEach(this::getSettings);
+    }
+
+    public CalendarSettings getSettings(final String resource) {
+        return settingsByResource.computeIfAbsent(resource, this::loadSettings);
+    }
+
+    public boolean isConfigured(final String resource) {
+        return configuredResources.contains(resource);
+    }
+
+    /**
+     * The default resource and the names found in the bookable.resources.{resource}.* keys of the property sources
+     */
+    private Set<String> loadConfiguredResources() {
+        final Set<String> resources = new HashSet<>();
+        resources.add(DEFAULT_RESOURCE);
+        if (environment instanceof ConfigurableEnvironment configurableEnvironment) {
+            configurableEnvironment.getPropertySources()
+                                   .stream()
+                                   .filter(EnumerablePropertySource.class::isInstance)
+                                   .flatMap(source -> Arrays.stream(((EnumerablePropertySource<?>) source).getPropertyNames()))
+                                   .filter(key -> key.startsWith(RESOURCE_PREFIX) && key.indexOf('.', RESOURCE_PREFIX.length()) > RESOURCE_PREFIX.length())
+                                   .forEach(key -> resources.add(key.substring(RESOURCE_PREFIX.length(), key.indexOf('.', RESOURCE_PREFIX.length()))));
+        }
+        return Set.copyOf(resources);
+    }
+
+    private CalendarSettings loadSettings(final String resource) {
+        final String prefix = RESOURCE_PREFIX + resource + ".";
+        final CalendarSettings settings = CalendarSettings.builder()
+                               .timeFrameStart(getProperty(prefix + "frame.start", timeFrameStart, value -> LocalDate.parse(value, DATE_FORMAT)))
+                               .timeFrameEnd(getProperty(prefix + "frame.end", timeFrameEnd, value -> LocalDate.parse(value, DATE_FORMAT)))
+                               .workdayStart(getProperty(prefix + "workday.start", workdayStart, value -> LocalTime.parse(value, TIME_FORMAT)))
+                               .workdayEnd(getProperty(prefix + "workday.end", workdayEnd, value -> LocalTime.parse(value, TIME_FORMAT)))
+                               .workdays(parseWorkdays(getProperty(prefix + "workdays", workdays, Function.identity())))
+                               .workingHours(loadWorkingHours(prefix))
+                               .breaks(parseTimeRanges(getProperty(prefix + "breaks", breaks, Function.identity())))
+                               .holidays(parseDates(getProperty(prefix + "holidays", holidays, Function.identity())))
+                               .timeSlotMinDuration(getProperty(prefix + "time-slot.duration.min-minutes", timeSlotMinDuration, Integer::valueOf))
+                               .timeSlotMaxDuration(getProperty(prefix + "time-slot.duration.max-minutes", timeSlotMaxDuration, Integer::valueOf))
+                               .timeSlotGranularity(getProperty(prefix + "time-slot.granularity-minutes", timeSlotGranularity, Integer::valueOf))
+                               .build();
+        checkSlotGrid(resource, settings);
+        return settings;
+    }
+
+    /**
+     * Checks that the timeslots of the minimum length counted from midnight start at the opening of every workday
+     */
+    private static void checkSlotGrid(final String resource, final CalendarSettings settings) {
+        final int slotMinutes = settings.getTimeSlotMinDuration();
+        if (slotMinutes <= 0 || CalendarRules.MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalStateException("Invalid calendar of " + resource + ", the minimum timeslot of " + slotMinutes
+                                                    + " minutes has to divide the day");
+        }
+        for (final DayOfWeek dayOfWeek : settings.getWorkdays()) {
+            final LocalTime opening = settings.getWorkingHours(dayOfWeek).start();
+            if ((opening.getHour() * 60 + opening.getMinute()) % slotMinutes != 0) {
+                throw new IllegalStateException("Invalid calendar of " + resource + ", the workday start " + opening + " on "
+                                                        + dayOfWeek + " is not a multiple of the minimum timeslot of " + slotMinutes + " minutes");
+            }
+        }
+    }
+
+    /**
+     * The hours of the weekdays configured for the resource or by default, the others have the workday start and end
+     */
+    private Map<DayOfWeek, TimeRange> loadWorkingHours(final String prefix) {
+        final Map<DayOfWeek, TimeRange> workingHours = new EnumMap<>(DayOfWeek.class);
+        for (final DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            final String key = WORKING_HOURS + dayOfWeek.name().toLowerCase(Locale.ROOT);
+            final TimeRange hours = getProperty(prefix + key, getProperty(DEFAULT_PREFIX + key, null, CalendarSettingsService::parseTimeRange),
+                                                CalendarSettingsService::parseTimeRange);
+            if (hours != null) {
+                workingHours.put(dayOfWeek, hours);
+            }
+        }
+        return workingHours;
+    }
+
+    private static Set<DayOfWeek> parseWorkdays(final String value) {
+        final Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        split(value).forEach(day -> days.add(DayOfWeek.valueOf(day.toUpperCase(Locale.ROOT))));
+        return days;
+    }
+
+    private static List<TimeRange> parseTimeRanges(final String value) {
+        return split(value).map(CalendarSettingsService::parseTimeRange).toList();
+    }
+
+    private static Set<LocalDate> parseDates(final String value) {
+        return split(value).map(date -> LocalDate.parse(date, DATE_FORMAT)).collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static TimeRange parseTimeRange(final String value) {
+        final String[] times = value.split(RANGE_SEPARATOR);
+        if (times.length != 2) {
+            throw new IllegalArgumentException("Invalid time range, expected HH:mm-HH:mm: " + value);
+        }
+        final TimeRange range = new TimeRange(LocalTime.parse(times[0].trim(), TIME_FORMAT), LocalTime.parse(times[1].trim(), TIME_FORMAT));
+        if (!range.start().isBefore(range.end())) {
+            throw new IllegalArgumentException("Invalid time range, the start has to be before the end: " + value);
+        }
+        return range;
+    }
+
+    private static Stream<String> split(final String value) {
+        return Arrays.stream(value.split(LIST_SEPARATOR))
+                     .map(String::trim)
+                     .filter(item -> !item.isEmpty());
+    }
+
+    private <T> T getProperty(final String key, final T defaultValue, final Function<String, T> parser) {
+        final String value = environment.getProperty(key);
+        return value == null ? defaultValue : parser.apply(value.trim());
+    }
+
+}
@@ -1,28 +1,103 @@
 package org.simple.booking.service.service;
 
 import jakarta.annotation.PostConstruct;
-import lombok.Getter;
-import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.RejectionReason;
+import org.simple.booking.service.domain.exception.BookingBadRequestException;
+import org.simple.booking.service.service.metrics.BookingMetrics;
+import org.simple.booking.service.service.metrics.TimedStep;
+import org.simple.booking.service.service.store.FreeSlotCache;
+import org.simple.booking.service.service.store.ResourceCalendar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
 
 /**
  * TODO It could be replaced by a Repository interface, TimeSlotService used to mock the persisting layer
  * In real world scenario Repository and persisting Layer would be used for storing
  * the booked timeslots
+ * <p>
+ * Every bookable resource has its own, independently locked partition, created on first use.
+ * The resources not configured under bookable.resources get a calendar only while less than
+ * bookable.max-unconfigured-resources of them have one, so the requests naming arbitrary resources cannot fill the memory.
+ * A calendar loaded with stored bookings is always created.
  */
-@Getter
 @Service
 public class TimeSlotService {
 
-    private Set<Booking> timeSlotStore;
+    @Autowired
+    private CalendarSettingsService calendarSettingsService;
+    @Autowired
+    private BookingMetrics bookingMetrics;
+
+    @Value("${bookable.free-slot-cache.max-days:1024}")
+    private int freeSlotCacheMaxDays;
+    @Value("${bookable.max-unconfigured-resources:100}")
+    private int maxUnconfiguredResources;
+
+    private Map<String, ResourceCalendar> calendars;
+    private final AtomicInteger unconfiguredResources = new AtomicInteger();
+    private FreeSlotCache freeSlotCache;
+    private volatile Consumer<ResourceCalendar> calendarLoader = calendar -> { };
 
     @PostConstruct
     private void init() {
-        timeSlotStore = new TreeSet<>(Comparator.comparing(Booking::getStart));
+        calendars = new ConcurrentHashMap<>();
+        freeSlotCache = new FreeSlotCache(freeSlotCacheMaxDays);
+        bookingMetrics.bindFreeSlotCache(freeSlotCache);
+    }
+
+    /**
+     * Returns the calendar of the resource, rejects an unconfigured resource without stored bookings beyond the limit
+     */
+    public ResourceCalendar getCalendar(final String resource) {
+        return calendars.computeIfAbsent(resource == null ? DEFAULT_RESOURCE : resource, name -> createCalendar(name, true));
+    }
+
+    /**
+     * Returns the calendar of the resource of a logged or replicated record, which is never rejected
+     */
+    public ResourceCalendar getStoredCalendar(final String resource) {
+        return calendars.computeIfAbsent(resource == null ? DEFAULT_RESOURCE : resource, name -> createCalendar(name, false));
+    }
+
+    /**
+     * The loader fills every new calendar with its stored bookings before the calendar is published
+     */
+    public void setCalendarLoader(final Consumer<ResourceCalendar> calendarLoader) {
+        this.calendarLoader = calendarLoader;
+    }
+
+    public Collection<ResourceCalendar> getCalendars() {
+        return calendars.values();
+    }
+
+    /**
+     * The free timeslots of the days of every calendar, bounded by bookable.free-slot-cache.max-days
+     */
+    public FreeSlotCache getFreeSlotCache() {
+        return freeSlotCache;
+    }
+
+    private ResourceCalendar createCalendar(final String resource, final boolean limited) {
+        final long time = bookingMetrics.start();
+        final ResourceCalendar calendar = new ResourceCalendar(resource, calendarSettingsService.getSettings(resource), freeSlotCache);
+        calendarLoader.accept(calendar);
+        if (!calendarSettingsService.isConfigured(resource) && unconfiguredResources.incrementAndGet() > maxUnconfiguredResources
+                && limited && calendar.getTimeSlotStore().size() == 0) {
+            unconfiguredResources.decrementAndGet();
+            throw new BookingBadRequestException(RejectionReason.TOO_MANY_RESOURCES, maxUnconfiguredResources);
+        }
+        bookingMetrics.lap(TimedStep.LOAD_CALENDAR, time);
+        bookingMetrics.bindCalendar(calendar, calendarSettingsService.isConfigured(resource));
+        return calendar;
     }
 
 }
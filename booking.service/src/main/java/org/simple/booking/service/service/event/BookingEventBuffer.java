@@ -0,0 +1,115 @@
+package org.simple.booking.service.service.event;
+
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.BookingEvent;
+import org.simple.booking.service.domain.BookingEventType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ring buffer of the latest booking events, shared by every subscriber. The subscribers read it at their own pace
+ * from their last sequence number, nothing is queued per subscriber, so a slow one cannot grow the heap:
+ * once the events it has not read yet are overwritten, it is told to resync instead.
+ * An append only claims the next sequence number and writes its slot, without a lock, as it runs while the days
+ * of the booking are locked. A claimed event becomes readable when its slot is written, the events are read
+ * in sequence order up to the first one not written yet. A reader waiting for the next event is parked
+ * and unparked by the append writing it.
+ */
+public class BookingEventBuffer {
+
+    private final AtomicReferenceArray<BookingEvent> events;
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    public BookingEventBuffer(final int capacity) {
+        this.events = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Appends the change under the next sequence number
+     */
+    public void append(final BookingEventType type, final Booking booking) {
+        final long sequence = lastSequence.incrementAndGet();
+        events.set(index(sequence), BookingEvent.builder()
+                                                .sequence(sequence)
+                                                .type(type)
+                                                .booking(booking)
+                                                .build());
+        if (!waiters.isEmpty()) {
+            waiters.forEach(LockSupport::unpark);
+        }
+    }
+
+    public long getLastSequence() {
+        return lastSequence.get();
+    }
+
+    /**
+     * Parks the calling thread until the event after the sequence is readable or overwritten, at most for the timeout.
+     * The waiter is registered before the slot is checked, so the append writing the slot either is seen or unparks it.
+     */
+    public void await(final long afterSequence, final long timeout, final TimeUnit unit) throws InterruptedException {
+        final Thread thread = Thread.currentThread();
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waiters.add(thread);
+        try {
+            for (long nanos = unit.toNanos(timeout); nanos > 0 && !isWritten(afterSequence + 1); nanos = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(this, nanos);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiters.remove(thread);
+        }
+    }
+
+    /**
+     * Returns at most max of the readable events after the sequence, without waiting.
+     * The read is lapped if some of those events were already overwritten, or if the sequence is ahead of the buffer,
+     * which happens to the subscribers resuming after a restart.
+     */
+    public Read read(final long afterSequence, final int max) {
+        final long last = lastSequence.get();
+        if (afterSequence > last || afterSequence < last - events.length()) {
+            return new Read(List.of(), last, true);
+        }
+        final List<BookingEvent> read = new ArrayList<>((int) Math.min(max, last - afterSequence));
+        for (long sequence = afterSequence + 1; sequence <= last && read.size() < max; sequence++) {
+            final BookingEvent event = events.get(index(sequence));
+            if (event == null || event.getSequence() < sequence) {
+                break;
+            }
+            if (event.getSequence() > sequence) {
+                return new Read(List.of(), lastSequence.get(), true);
+            }
+            read.add(event);
+        }
+        return new Read(read, last, false);
+    }
+
+    private boolean isWritten(final long sequence) {
+        final BookingEvent event = events.get(index(sequence));
+        return event != null && event.getSequence() >= sequence;
+    }
+
+    private int index(final long sequence) {
+        return (int) (sequence % events.length());
+    }
+
+    /**
+     * @param events       the events read, empty if none is readable yet
+     * @param lastSequence the sequence number of the latest event of the buffer
+     * @param lapped       the subscriber has to resync from the store, then read after the last sequence
+     */
+    public record Read(List<BookingEvent> events, long lastSequence, boolean lapped) {
+    }
+
+}
@@ -0,0 +1,79 @@
+package org.simple.booking.service.service.event;
+
+import jakarta.annotation.PostConstruct;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.BookingEventType;
+import org.simple.booking.service.service.event.BookingEventBuffer.Read;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the changes of the booking store for the event stream subscribers.
+ * The events are published while the days of the booking are locked, like the log records,
+ * so the sequence numbers of the events of a day follow the order of the store. Publishing takes no lock,
+ * so the writes of different days and resources do not wait for each other or for the subscribers.
+ * The sequence numbers restart with the service, so the event ids carry the epoch of the start as well:
+ * {@code <epoch>-<sequence>}, an id of a previous start is not mistaken for an event of this one.
+ */
+@Service
+public class BookingEventService {
+
+    private static final String EVENT_ID_SEPARATOR = "-";
+
+    @Value("${booking.events.buffer-size:4096}")
+    private int bufferSize;
+
+    // The start time of the service, distinguishes the sequence numbers of the starts
+    private final long epoch = System.currentTimeMillis();
+    private BookingEventBuffer buffer;
+
+    @PostConstruct
+    private void init() {
+        buffer = new BookingEventBuffer(bufferSize);
+    }
+
+    public void publish(final BookingEventType type, final Booking booking) {
+        buffer.append(type, booking);
+    }
+
+    public long getLastSequence() {
+        return buffer.getLastSequence();
+    }
+
+    public String getEventId(final long sequence) {
+        return epoch + EVENT_ID_SEPARATOR + sequence;
+    }
+
+    /**
+     * Returns the sequence number of the event id, empty if the id is malformed or of another start of the service
+     */
+    public OptionalLong getSequence(final String eventId) {
+        final int separator = eventId.indexOf(EVENT_ID_SEPARATOR);
+        try {
+            if (separator > 0 && Long.parseLong(eventId.substring(0, separator)) == epoch) {
+                return OptionalLong.of(Long.parseLong(eventId.substring(separator + 1)));
+            }
+        } catch (final NumberFormatException exception) {
+            // Resynced like an id of another start
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Returns at most max of the readable events after the sequence, without waiting
+     */
+    public Read read(final long afterSequence, final int max) {
+        return buffer.read(afterSequence, max);
+    }
+
+    /**
+     * Waits at most the timeout for the event after the sequence
+     */
+    public void await(final long afterSequence, final long timeout, final TimeUnit unit) throws InterruptedException {
+        buffer.await(afterSequence, timeout, unit);
+    }
+
+}
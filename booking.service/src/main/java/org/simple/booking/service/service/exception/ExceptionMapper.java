@@ -1,6 +1,9 @@
 package org.simple.booking.service.service.exception;
 
+import org.simple.booking.service.domain.RejectionReason;
 import org.simple.booking.service.domain.exception.BookingBadRequestException;
+import org.simple.booking.service.service.metrics.BookingMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,10 +18,15 @@ import java.util.List;
 @RestControllerAdvice
 public class ExceptionMapper {
 
+    @Autowired
+    private BookingMetrics bookingMetrics;
+
     @ResponseBody
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(BookingBadRequestException.class)
     public ResponseEntity<Object> mapBadRequestException(final BookingBadRequestException exception) {
+        bookingMetrics.rejected(exception.getReason());
+        // The only place the message of a rejection is rendered
         return ResponseEntity.badRequest()
                              .body(exception.getMessage());
     }
@@ -27,6 +35,7 @@ public class ExceptionMapper {
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> mapMethodArgumentNotValidException(final MethodArgumentNotValidException exception) {
+        bookingMetrics.rejected(RejectionReason.INVALID_REQUEST);
         return ResponseEntity.badRequest()
                              .body(extractExceptionMsgList(exception));
     }
@@ -0,0 +1,151 @@
+package org.simple.booking.service.service.idempotency;
+
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.RejectionReason;
+import org.simple.booking.service.domain.exception.BookingBadRequestException;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static org.simple.booking.service.domain.Constants.DEFAULT_RESOURCE;
+
+/**
+ * The registered bookings by the idempotency keys of their requests, kept for a fixed time and at most max keys.
+ * A key is claimed before the registration, so a retry arriving while the first request is still running waits for
+ * its outcome instead of registering again. Only the registered bookings are kept, a failed registration releases
+ * its key, and its concurrent retries get the same error.
+ * The keys are queued in the order they were claimed, which is also the order they expire in, so the eviction only
+ * looks at the head of the queue. It is done by whichever request gets the lock, the others never wait for it.
+ * Only the claims still holding their key count toward the maximum, a released or replaced one is skipped by the eviction.
+ */
+public class IdempotencyCache {
+
+    private final int maxKeys;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Claim> claims = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger claimCount = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public IdempotencyCache(final int maxKeys, final long ttl, final TimeUnit unit) {
+        this.maxKeys = maxKeys;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Returns the booking registered with the key, or registers the booking with the action.
+     * A key used for another booking is rejected.
+     */
+    public Booking register(final String key, final Booking booking, final Supplier<Booking> action) {
+        final long now = System.nanoTime();
+        final Entry entry = new Entry(booking, new CompletableFuture<>(), now + ttlNanos);
+        Entry current = entries.putIfAbsent(key, entry);
+        while (current != null && current.isExpired(now)) {
+            if (entries.replace(key, current, entry)) {
+                // The claim of the expired key no longer holds it
+                claimCount.decrementAndGet();
+                current = null;
+            } else {
+                current = entries.putIfAbsent(key, entry);
+            }
+        }
+        if (current != null) {
+            return replay(key, booking, current);
+        }
+
+        claims.add(new Claim(key, entry));
+        claimCount.incrementAndGet();
+        evict(now);
+        try {
+            final Booking registered = action.get();
+            entry.response().complete(registered);
+            return registered;
+        } catch (final RuntimeException exception) {
+            if (entries.remove(key, entry)) {
+                claimCount.decrementAndGet();
+            }
+            entry.response().completeExceptionally(exception);
+            throw exception;
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Booking replay(final String key, final Booking booking, final Entry entry) {
+        if (!isSameBooking(entry.request(), booking)) {
+            throw new BookingBadRequestException(RejectionReason.IDEMPOTENCY_KEY_REUSED, key);
+        }
+        hits.increment();
+        try {
+            return entry.response().join();
+        } catch (final CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Removes the expired keys and the oldest ones above the maximum, unless another request is already doing it.
+     * The released claims at the head of the queue are dropped on the way.
+     */
+    private void evict(final long now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            Claim claim;
+            while ((claim = claims.peek()) != null
+                    && (claimCount.get() > maxKeys || claim.entry().isExpired(now) || entries.get(claim.key()) != claim.entry())) {
+                claims.poll();
+                if (entries.remove(claim.key(), claim.entry())) {
+                    claimCount.decrementAndGet();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static boolean isSameBooking(final Booking first, final Booking second) {
+        return Objects.equals(first.getClient(), second.getClient())
+                && Objects.equals(first.getStart(), second.getStart())
+                && Objects.equals(first.getEnd(), second.getEnd())
+                && Objects.equals(Objects.requireNonNullElse(first.getResource(), DEFAULT_RESOURCE),
+                                  Objects.requireNonNullElse(second.getResource(), DEFAULT_RESOURCE));
+    }
+
+    private record Entry(Booking request, CompletableFuture<Booking> response, long expiresAt) {
+
+        boolean isExpired(final long now) {
+            return expiresAt - now <= 0;
+        }
+    }
+
+    private record Claim(String key, Entry entry) {
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.simple.booking.service.service.idempotency;
+
+import jakarta.annotation.PostConstruct;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.metrics.BookingMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates the retried registrations carrying the same Idempotency-Key header.
+ * The requests without the header never touch the cache.
+ */
+@Service
+public class IdempotencyService {
+
+    @Autowired
+    private BookingMetrics bookingMetrics;
+
+    @Value("${booking.idempotency.max-keys:100000}")
+    private int maxKeys;
+    @Value("${booking.idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private IdempotencyCache cache;
+
+    @PostConstruct
+    private void init() {
+        cache = new IdempotencyCache(maxKeys, ttlMinutes, TimeUnit.MINUTES);
+        bookingMetrics.bindIdempotencyCache(cache);
+    }
+
+    /**
+     * Registers the booking with the action, or returns the booking already registered with the key
+     */
+    public Booking register(final String key, final Booking booking, final Supplier<Booking> action) {
+        return key == null ? action.get() : cache.register(key, booking, action);
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.simple.booking.service.service.metrics;
+
+/**
+ * The timed steps of the service layer, every step has its own timer tagged with the name of the method
+ */
+public enum TimedStep {
+    REGISTER_BOOKING(TimedStep.OPERATION_TIMER, TimedStep.OPERATION, "registerBooking"),
+    REGISTER_BOOKINGS(TimedStep.OPERATION_TIMER, TimedStep.OPERATION, "registerBookings"),
+    CANCEL_BOOKING(TimedStep.OPERATION_TIMER, TimedStep.OPERATION, "cancelBooking"),
+    RESCHEDULE_BOOKING(TimedStep.OPERATION_TIMER, TimedStep.OPERATION, "rescheduleBooking"),
+    LOAD_CALENDAR(TimedStep.OPERATION_TIMER, TimedStep.OPERATION, "loadCalendar"),
+    CHECK_CALENDAR_RULES(TimedStep.VALIDATION_TIMER, TimedStep.STEP, "checkCalendarRules"),
+    CHECK_OVERLAP(TimedStep.VALIDATION_TIMER, TimedStep.STEP, "checkOverLap");
+
+    private static final String OPERATION_TIMER = "booking.service.operation";
+    private static final String VALIDATION_TIMER = "booking.validation.step";
+    private static final String OPERATION = "operation";
+    private static final String STEP = "step";
+
+    final String timerName;
+    final String tagKey;
+    final String tagValue;
+
+    TimedStep(final String timerName, final String tagKey, final String tagValue) {
+        this.timerName = timerName;
+        this.tagKey = tagKey;
+        this.tagValue = tagValue;
+    }
+}
@@ -0,0 +1,248 @@
+package org.simple.booking.service.service.persistence;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.simple.booking.service.cluster.ClusterReplicator;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.TimeSlotService;
+import org.simple.booking.service.service.persistence.BookingRecordCodec.BookingRecord;
+import org.simple.booking.service.service.store.ResourceCalendar;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Makes the booking store durable: every registration, cancellation and rescheduling is appended to a write-ahead log,
+ * and the store is periodically written to a snapshot, so a restart replays only the segments written after it.
+ * The snapshot is memory mapped and the calendar of a resource is loaded from it on first use,
+ * so the startup time does not grow with the number of stored bookings. Persistence is switched off by default.
+ * In a cluster the same records replicate the owned resources to their followers.
+ */
+@Slf4j
+@Service
+public class BookingPersistenceService {
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.tmp";
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+    // Only present in a cluster, the records are shipped to the followers of the resources as well
+    @Autowired(required = false)
+    private ClusterReplicator clusterReplicator;
+
+    @Value("${booking.persistence.enabled:false}")
+    private boolean enabled;
+    @Value("${booking.persistence.directory:data}")
+    private Path directory;
+    @Value("${booking.persistence.fsync:INTERVAL}")
+    private FsyncPolicy fsyncPolicy;
+    @Value("${booking.persistence.fsync-interval-millis:10}")
+    private long fsyncIntervalMillis;
+    @Value("${booking.persistence.snapshot-interval-minutes:10}")
+    private long snapshotIntervalMinutes;
+
+    private WriteAheadLog writeAheadLog;
+    private volatile BookingSnapshot snapshot;
+    private ScheduledExecutorService snapshotScheduler;
+
+    @PostConstruct
+    private void init() throws IOException {
+        if (clusterReplicator != null) {
+            clusterReplicator.setResyncSource(this::encodeCalendars);
+        }
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        final long firstSegment = recover();
+        writeAheadLog = new WriteAheadLog(directory, firstSegment, fsyncPolicy, Duration.ofMillis(fsyncIntervalMillis));
+
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "booking-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMinutes, snapshotIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    private void close() {
+        if (!enabled) {
+            return;
+        }
+        snapshotScheduler.shutdown();
+        writeAheadLog.close();
+    }
+
+    /**
+     * Encodes the record of the booking before the store is changed, so a booking which cannot be logged
+     * is rejected before it takes any effect. Null if the records are neither logged nor replicated.
+     */
+    public ByteBuffer encodeBooked(final Booking booking) {
+        return encode(BookingRecordCodec.BOOKED, booking);
+    }
+
+    /**
+     * Encodes the record of the cancellation of the booking, the same way as encodeBooked
+     */
+    public ByteBuffer encodeCancelled(final Booking booking) {
+        return encode(BookingRecordCodec.CANCELLED, booking);
+    }
+
+    /**
+     * Encodes the record of the new timeslot of the booking, the same way as encodeBooked.
+     * One record carries the whole move, so a crash cannot leave the booking cancelled but not booked again.
+     */
+    public ByteBuffer encodeRescheduled(final Booking rescheduledBooking) {
+        return encode(BookingRecordCodec.RESCHEDULED, rescheduledBooking);
+    }
+
+    /**
+     * Appends the encoded record of the booking to the log. It has to be called while the days of the booking are locked,
+     * so the order of the log matches the order of the store, and the returned future has to be
+     * waited for after the locks are released, so the fsync is not done under the lock.
+     * If the future fails, the change of the store has to be undone, as it would be lost on restart.
+     * The record is replicated to the follower of the resource in the background, the future does not wait for it.
+     */
+    public CompletableFuture<Booking> log(final ByteBuffer record, final Booking booking) {
+        if (record == null) {
+            return CompletableFuture.completedFuture(booking);
+        }
+        // The writer thread consumes the buffer, the follower gets its own view of the same bytes
+        if (clusterReplicator != null) {
+            clusterReplicator.replicate(booking.getResource(), record.duplicate());
+        }
+        final CompletableFuture<Void> written = enabled ? writeAheadLog.append(record) : CompletableFuture.completedFuture(null);
+        return written.thenApply(ignored -> booking);
+    }
+
+    /**
+     * Applies the records replicated by the owner node of their resources, and appends them to the local log,
+     * so the replica survives a restart of this node as well
+     */
+    public void applyReplicated(final byte[] records) {
+        replay(ByteBuffer.wrap(records));
+        if (enabled) {
+            writeAheadLog.append(ByteBuffer.wrap(records)).join();
+        }
+    }
+
+    /**
+     * Writes every booking of the store to a new snapshot and removes the log segments it covers.
+     * The log is rolled first, so the records of the bookings registered during the snapshot
+     * are in the retained segments, replaying them again is harmless. The resources that were not
+     * used since the startup have no records in the log, they are copied from the previous snapshot.
+     */
+    public synchronized void snapshot() throws IOException {
+        final long firstRetainedSegment = writeAheadLog.roll().join();
+        final Path snapshotTempFile = directory.resolve(SNAPSHOT_TEMP_FILE);
+        final Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        BookingSnapshot.write(snapshotTempFile, firstRetainedSegment, List.copyOf(timeSlotService.getCalendars()), snapshot);
+        Files.move(snapshotTempFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE);
+        useSnapshot(BookingSnapshot.open(snapshotFile));
+
+        for (final Path segmentFile : WriteAheadLog.listSegments(directory)) {
+            if (WriteAheadLog.segmentNumber(segmentFile) < firstRetainedSegment) {
+                Files.delete(segmentFile);
+            }
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (final IOException | RuntimeException exception) {
+            log.error("Writing the booking snapshot failed", exception);
+        }
+    }
+
+    /**
+     * Maps the snapshot and replays the log segments written after it,
+     * returns the number of the segment the log continues with
+     */
+    private long recover() throws IOException {
+        long firstSegment = 0;
+        final Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) {
+            useSnapshot(BookingSnapshot.open(snapshotFile));
+            firstSegment = snapshot.firstSegment();
+            log.info("Mapped the snapshot of {} resources", snapshot.resources().size());
+        }
+
+        final List<Path> segmentFiles = WriteAheadLog.listSegments(directory);
+        for (final Path segmentFile : segmentFiles) {
+            if (WriteAheadLog.segmentNumber(segmentFile) >= firstSegment) {
+                log.info("Replayed {} records from {}", replay(ByteBuffer.wrap(Files.readAllBytes(segmentFile))), segmentFile);
+            }
+        }
+        return segmentFiles.isEmpty() ? firstSegment : Math.max(firstSegment, WriteAheadLog.segmentNumber(segmentFiles.get(segmentFiles.size() - 1)) + 1);
+    }
+
+    /**
+     * Encodes every loaded calendar of the matching resources as a reset and the bookings of the calendar,
+     * the resources which are not loaded have not changed since the startup
+     */
+    private List<ByteBuffer> encodeCalendars(final Predicate<String> resources) {
+        final List<ByteBuffer> records = new ArrayList<>();
+        for (final ResourceCalendar calendar : timeSlotService.getCalendars()) {
+            if (resources.test(calendar.getResource())) {
+                records.add(BookingRecordCodec.encodeReset(calendar.getResource()));
+                calendar.getTimeSlotStore().stream()
+                        .forEach(booking -> records.add(BookingRecordCodec.encode(BookingRecordCodec.BOOKED, booking)));
+            }
+        }
+        return records;
+    }
+
+    private ByteBuffer encode(final byte type, final Booking booking) {
+        return !enabled && clusterReplicator == null ? null : BookingRecordCodec.encode(type, booking);
+    }
+
+    private void useSnapshot(final BookingSnapshot bookingSnapshot) {
+        snapshot = bookingSnapshot;
+        timeSlotService.setCalendarLoader(calendar -> {
+            final int loaded = bookingSnapshot.loadInto(calendar);
+            log.debug("Loaded {} bookings of {} from the snapshot", loaded, calendar.getResource());
+        });
+    }
+
+    /**
+     * Applies the records in their order. A record already reflected by the snapshot changes nothing:
+     * a booking is not added again under its id, and a cancellation or a move finds the booking by its id.
+     */
+    private int replay(final ByteBuffer records) {
+        int replayed = 0;
+        for (Optional<BookingRecord> record = BookingRecordCodec.decode(records); record.isPresent(); record = BookingRecordCodec.decode(records)) {
+            final Booking booking = record.get().booking();
+            final ResourceCalendar calendar = timeSlotService.getStoredCalendar(booking.getResource());
+            switch (record.get().type()) {
+                case BookingRecordCodec.BOOKED -> calendar.addBooking(booking);
+                case BookingRecordCodec.CANCELLED -> calendar.getTimeSlotStore().findById(booking.getId()).ifPresent(calendar::removeBooking);
+                case BookingRecordCodec.RESCHEDULED -> calendar.getTimeSlotStore().findById(booking.getId())
+                                                               .ifPresent(stored -> calendar.moveBooking(stored, booking));
+                case BookingRecordCodec.RESET -> calendar.getTimeSlotStore().stream().toList().forEach(calendar::removeBooking);
+                default -> log.warn("Skipped a record of unknown type {}", record.get().type());
+            }
+            replayed++;
+        }
+        return replayed;
+    }
+
+}
@@ -0,0 +1,142 @@
+package org.simple.booking.service.service.persistence;
+
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.store.EpochMinutes;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format of the booking records of the write-ahead log:
+ * payload length (int), CRC32 of the payload (int), then the payload:
+ * record type (byte), id (2 longs), start in epoch minutes (long), duration in minutes (int),
+ * resource and client as UTF-8 strings prefixed by their length (short, -1 for null).
+ */
+final class BookingRecordCodec {
+
+    static final byte BOOKED = 1;
+    static final byte CANCELLED = 2;
+    // Carries the new timeslot of the booking with the id
+    static final byte RESCHEDULED = 3;
+    // Removes every booking of the resource, a replica is resynced by it and the bookings following it
+    static final byte RESET = 4;
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final int MAX_STRING_LENGTH = Short.MAX_VALUE;
+
+    private BookingRecordCodec() {
+    }
+
+    static ByteBuffer encode(final byte type, final Booking booking) {
+        final byte[] resource = toBytes(booking.getResource());
+        final byte[] client = toBytes(booking.getClient());
+        final int payloadSize = Byte.BYTES + Long.BYTES * 3 + Integer.BYTES + stringSize(resource) + stringSize(client);
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadSize);
+        buffer.putInt(payloadSize)
+              .putInt(0)
+              .put(type);
+        final UUID id = UUID.fromString(booking.getId());
+        buffer.putLong(id.getMostSignificantBits())
+              .putLong(id.getLeastSignificantBits())
+              .putLong(EpochMinutes.of(booking.getStart()))
+              .putInt((int) (EpochMinutes.of(booking.getEnd()) - EpochMinutes.of(booking.getStart())));
+        putString(buffer, resource);
+        putString(buffer, client);
+        buffer.putInt(Integer.BYTES, crc(buffer.array(), HEADER_SIZE, payloadSize));
+
+        return buffer.flip();
+    }
+
+    static ByteBuffer encodeReset(final String resource) {
+        final LocalDateTime epoch = EpochMinutes.toLocalDateTime(0);
+        return encode(RESET, Booking.builder()
+                                    .id(new UUID(0, 0).toString())
+                                    .resource(resource)
+                                    .start(epoch)
+                                    .end(epoch)
+                                    .build());
+    }
+
+    /**
+     * Decodes the next record of the buffer, an empty result means the end of the log,
+     * which is either the real end or a torn write of a crash.
+     */
+    static Optional<BookingRecord> decode(final ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE) {
+            return Optional.empty();
+        }
+        final int payloadSize = buffer.getInt();
+        final int crc = buffer.getInt();
+        if (payloadSize <= 0 || payloadSize > buffer.remaining()
+                || crc(buffer.array(), buffer.arrayOffset() + buffer.position(), payloadSize) != crc) {
+            return Optional.empty();
+        }
+        try {
+            final byte type = buffer.get();
+            final UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            final LocalDateTime start = EpochMinutes.toLocalDateTime(buffer.getLong());
+            final LocalDateTime end = start.plusMinutes(buffer.getInt());
+            final String resource = getString(buffer);
+            final String client = getString(buffer);
+
+            return Optional.of(new BookingRecord(type, Booking.builder()
+                                                               .id(id.toString())
+                                                               .start(start)
+                                                               .end(end)
+                                                               .resource(resource)
+                                                               .client(client)
+                                                               .build()));
+        } catch (final BufferUnderflowException exception) {
+            return Optional.empty();
+        }
+    }
+
+    private static int crc(final byte[] bytes, final int offset, final int length) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(bytes, offset, length);
+        return (int) crc32.getValue();
+    }
+
+    private static byte[] toBytes(final String value) {
+        if (value == null) {
+            return null;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("Value is too long to be persisted: " + value.substring(0, 32) + "...");
+        }
+        return bytes;
+    }
+
+    private static int stringSize(final byte[] bytes) {
+        return Short.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(final ByteBuffer buffer, final byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) bytes.length)
+                  .put(bytes);
+        }
+    }
+
+    private static String getString(final ByteBuffer buffer) {
+        final short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    record BookingRecord(byte type, Booking booking) {
+    }
+
+}
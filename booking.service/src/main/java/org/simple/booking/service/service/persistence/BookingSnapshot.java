@@ -0,0 +1,237 @@
+package org.simple.booking.service.service.persistence;
+
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.store.EpochMinutes;
+import org.simple.booking.service.service.store.ResourceCalendar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Snapshot of the booking store, read through a memory mapping.
+ * Layout: header, resource directory, fixed-width booking records sorted by resource and start, string table.
+ * A record is the 128-bit id, start and end in epoch minutes and the string table index of the client (-1 for null),
+ * the directory entry of a resource is its string table index, its first record and its record count.
+ * Opening a snapshot reads only the header, the directory and the string table, the records of a resource
+ * are read from the mapping when its calendar is first used.
+ */
+final class BookingSnapshot {
+
+    private static final long MAGIC = 0x424F4F4B534E4150L;
+    private static final int VERSION = 2;
+    private static final int VERSION_OFFSET = Long.BYTES;
+    private static final int FIRST_SEGMENT_OFFSET = VERSION_OFFSET + Integer.BYTES;
+    private static final int STRING_TABLE_OFFSET = FIRST_SEGMENT_OFFSET + Long.BYTES;
+    private static final int RESOURCE_COUNT_OFFSET = STRING_TABLE_OFFSET + Long.BYTES;
+    private static final int HEADER_SIZE = RESOURCE_COUNT_OFFSET + Integer.BYTES;
+    private static final int DIRECTORY_ENTRY_SIZE = Integer.BYTES * 3;
+    private static final int RECORD_SIZE = Long.BYTES * 2 + Integer.BYTES * 3;
+    private static final int NO_CLIENT = -1;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final MappedByteBuffer mapping;
+    private final long firstSegment;
+    private final String[] strings;
+    private final Map<String, int[]> recordRangeByResource;
+
+    private BookingSnapshot(final MappedByteBuffer mapping, final long firstSegment, final String[] strings,
+                            final Map<String, int[]> recordRangeByResource) {
+        this.mapping = mapping;
+        this.firstSegment = firstSegment;
+        this.strings = strings;
+        this.recordRangeByResource = recordRangeByResource;
+    }
+
+    static BookingSnapshot open(final Path file) throws IOException {
+        final MappedByteBuffer mapping;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapping.limit() < HEADER_SIZE || mapping.getLong(0) != MAGIC || mapping.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IllegalStateException("Invalid booking snapshot: " + file);
+        }
+        final int stringTableOffset = Math.toIntExact(mapping.getLong(STRING_TABLE_OFFSET));
+        final String[] strings = readStrings(mapping.slice(stringTableOffset, mapping.limit() - stringTableOffset));
+        final Map<String, int[]> recordRangeByResource = new HashMap<>();
+        for (int i = 0; i < mapping.getInt(RESOURCE_COUNT_OFFSET); i++) {
+            final int entry = HEADER_SIZE + i * DIRECTORY_ENTRY_SIZE;
+            recordRangeByResource.put(strings[mapping.getInt(entry)],
+                                      new int[]{mapping.getInt(entry + Integer.BYTES), mapping.getInt(entry + Integer.BYTES * 2)});
+        }
+
+        return new BookingSnapshot(mapping, mapping.getLong(FIRST_SEGMENT_OFFSET), strings, recordRangeByResource);
+    }
+
+    /**
+     * Writes the bookings of the calendars, the bookings registered meanwhile may or may not be included.
+     * The resources of the previous snapshot that have no calendar yet are copied from its mapping
+     * without being loaded onto the heap.
+     */
+    static void write(final Path file, final long firstSegment, final Collection<ResourceCalendar> calendars,
+                      final BookingSnapshot previous) throws IOException {
+        final Map<String, ResourceCalendar> calendarsByResource = new HashMap<>();
+        calendars.forEach(calendar -> calendarsByResource.put(calendar.getResource(), calendar));
+        final SortedSet<String> resources = new TreeSet<>(calendarsByResource.keySet());
+        if (previous != null) {
+            resources.addAll(previous.resources());
+        }
+        final Map<String, Integer> stringIndexes = new LinkedHashMap<>();
+        final int recordsOffset = HEADER_SIZE + resources.size() * DIRECTORY_ENTRY_SIZE;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer directory = ByteBuffer.allocate(recordsOffset - HEADER_SIZE);
+            final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            channel.position(recordsOffset);
+            int recordCount = 0;
+            for (final String resource : resources) {
+                final int firstRecord = recordCount;
+                final ResourceCalendar calendar = calendarsByResource.get(resource);
+                if (calendar != null) {
+                    final Iterator<Booking> bookings = calendar.getTimeSlotStore().stream().iterator();
+                    while (bookings.hasNext()) {
+                        flushIfFull(channel, buffer);
+                        putRecord(buffer, bookings.next(), stringIndexes);
+                        recordCount++;
+                    }
+                } else {
+                    final int[] recordRange = previous.recordRangeByResource.get(resource);
+                    for (int record = recordRange[0]; record < recordRange[0] + recordRange[1]; record++) {
+                        flushIfFull(channel, buffer);
+                        previous.copyRecord(previous.recordsOffset() + record * RECORD_SIZE, buffer, stringIndexes);
+                        recordCount++;
+                    }
+                }
+                directory.putInt(intern(resource, stringIndexes))
+                         .putInt(firstRecord)
+                         .putInt(recordCount - firstRecord);
+            }
+            writeFully(channel, buffer.flip());
+
+            final long stringTableOffset = channel.position();
+            writeStrings(channel, stringIndexes.keySet());
+            channel.position(0);
+            writeFully(channel, ByteBuffer.allocate(HEADER_SIZE)
+                                          .putLong(MAGIC)
+                                          .putInt(VERSION)
+                                          .putLong(firstSegment)
+                                          .putLong(stringTableOffset)
+                                          .putInt(resources.size())
+                                          .flip());
+            writeFully(channel, directory.flip());
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Number of the first log segment written after the snapshot
+     */
+    long firstSegment() {
+        return firstSegment;
+    }
+
+    Set<String> resources() {
+        return recordRangeByResource.keySet();
+    }
+
+    /**
+     * Adds the bookings of the calendar's resource from the mapping to the calendar, returns their number
+     */
+    int loadInto(final ResourceCalendar calendar) {
+        final int[] recordRange = recordRangeByResource.get(calendar.getResource());
+        if (recordRange == null) {
+            return 0;
+        }
+        for (int record = recordRange[0]; record < recordRange[0] + recordRange[1]; record++) {
+            calendar.addBooking(getRecord(recordsOffset() + record * RECORD_SIZE, calendar.getResource()));
+        }
+        return recordRange[1];
+    }
+
+    private int recordsOffset() {
+        return HEADER_SIZE + recordRangeByResource.size() * DIRECTORY_ENTRY_SIZE;
+    }
+
+    private Booking getRecord(final int offset, final String resource) {
+        final int client = mapping.getInt(offset + Long.BYTES * 2 + Integer.BYTES * 2);
+        return Booking.builder()
+                      .id(new UUID(mapping.getLong(offset), mapping.getLong(offset + Long.BYTES)).toString())
+                      .start(EpochMinutes.toLocalDateTime(mapping.getInt(offset + Long.BYTES * 2)))
+                      .end(EpochMinutes.toLocalDateTime(mapping.getInt(offset + Long.BYTES * 2 + Integer.BYTES)))
+                      .client(client == NO_CLIENT ? null : strings[client])
+                      .resource(resource)
+                      .build();
+    }
+
+    private void copyRecord(final int offset, final ByteBuffer buffer, final Map<String, Integer> stringIndexes) {
+        final int client = mapping.getInt(offset + Long.BYTES * 2 + Integer.BYTES * 2);
+        buffer.put(mapping.slice(offset, Long.BYTES * 2 + Integer.BYTES * 2))
+              .putInt(client == NO_CLIENT ? NO_CLIENT : intern(strings[client], stringIndexes));
+    }
+
+    private static void flushIfFull(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) {
+            writeFully(channel, buffer.flip());
+            buffer.clear();
+        }
+    }
+
+    private static void putRecord(final ByteBuffer buffer, final Booking booking, final Map<String, Integer> stringIndexes) {
+        final UUID id = UUID.fromString(booking.getId());
+        buffer.putLong(id.getMostSignificantBits())
+              .putLong(id.getLeastSignificantBits())
+              .putInt(Math.toIntExact(EpochMinutes.of(booking.getStart())))
+              .putInt(Math.toIntExact(EpochMinutes.of(booking.getEnd())))
+              .putInt(booking.getClient() == null ? NO_CLIENT : intern(booking.getClient(), stringIndexes));
+    }
+
+    private static int intern(final String value, final Map<String, Integer> stringIndexes) {
+        return stringIndexes.computeIfAbsent(value, ignored -> stringIndexes.size());
+    }
+
+    private static void writeStrings(final FileChannel channel, final Collection<String> strings) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        buffer.putInt(strings.size());
+        for (final String value : strings) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                writeFully(channel, buffer.flip());
+                buffer = ByteBuffer.allocate(Math.max(WRITE_BUFFER_SIZE, Integer.BYTES + bytes.length));
+            }
+            buffer.putInt(bytes.length)
+                  .put(bytes);
+        }
+        writeFully(channel, buffer.flip());
+    }
+
+    private static String[] readStrings(final ByteBuffer table) {
+        final String[] strings = new String[table.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            final byte[] bytes = new byte[table.getInt()];
+            table.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.simple.booking.service.service.persistence;
+
+/**
+ * When the write-ahead log forces its writes to the disk
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Every commit group is forced before its bookings are acknowledged
+     */
+    ALWAYS,
+    /**
+     * Bookings are acknowledged once written, the log is forced at most once per interval
+     */
+    INTERVAL,
+    /**
+     * Bookings are acknowledged once written, forcing is left to the operating system
+     */
+    NONE
+
+}
@@ -0,0 +1,238 @@
+package org.simple.booking.service.service.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log written by a single writer thread. The records enqueued while a write is in progress
+ * form the next commit group, which is written with one channel write and forced with one fsync,
+ * so the request threads share the cost of the fsync instead of paying it one by one.
+ * The log is split into numbered segments, a snapshot makes the segments before it obsolete.
+ */
+@Slf4j
+class WriteAheadLog implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_GROUP_SIZE = 4096;
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final long pollTimeoutNanos;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    private FileChannel channel;
+    private long segment;
+    private long lastFsync;
+    private boolean unsynced;
+    private volatile boolean running = true;
+
+    WriteAheadLog(final Path directory, final long firstSegment, final FsyncPolicy fsyncPolicy, final Duration fsyncInterval) {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        // In interval mode the writer wakes up at least once per interval to force the last writes
+        this.pollTimeoutNanos = fsyncPolicy == FsyncPolicy.INTERVAL ? Math.max(1, fsyncIntervalNanos) : IDLE_POLL_NANOS;
+        this.segment = firstSegment;
+        this.channel = openSegment(firstSegment);
+        this.writer = new Thread(this::writeLoop, "booking-wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    static List<Path> listSegments(final Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .sorted((first, second) -> Long.compare(segmentNumber(first), segmentNumber(second)))
+                        .toList();
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    static long segmentNumber(final Path segmentFile) {
+        final String name = segmentFile.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Enqueues the record, the returned future completes when the record is durable according to the fsync policy
+     */
+    CompletableFuture<Void> append(final ByteBuffer record) {
+        final PendingWrite pendingWrite = new PendingWrite(record, false, new CompletableFuture<>());
+        queue.add(pendingWrite);
+        return pendingWrite.written();
+    }
+
+    /**
+     * Closes the current segment after every record enqueued so far, the returned future
+     * completes with the number of the new segment
+     */
+    CompletableFuture<Long> roll() {
+        final CompletableFuture<Void> rolled = new CompletableFuture<>();
+        queue.add(new PendingWrite(null, true, rolled));
+        return rolled.thenApply(ignored -> segment);
+    }
+
+    /**
+     * Stops the writer thread after the records enqueued so far are written. The writer is not interrupted,
+     * because an interrupt during a channel operation would close the channel.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+            channel.force(false);
+            channel.close();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (final IOException exception) {
+            log.error("Closing the write-ahead log failed", exception);
+        }
+    }
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                final PendingWrite first = queue.poll(pollTimeoutNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    writeGroup(drain(first));
+                } else if (unsynced && fsyncPolicy == FsyncPolicy.INTERVAL) {
+                    forceInterval();
+                }
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<PendingWrite> drain(final PendingWrite first) {
+        final List<PendingWrite> group = new ArrayList<>();
+        group.add(first);
+        queue.drainTo(group, MAX_GROUP_SIZE);
+        return group;
+    }
+
+    private void writeGroup(final List<PendingWrite> group) {
+        final List<PendingWrite> batch = new ArrayList<>();
+        for (final PendingWrite pendingWrite : group) {
+            if (pendingWrite.roll()) {
+                commit(batch);
+                batch.clear();
+                rollSegment(pendingWrite);
+            } else {
+                batch.add(pendingWrite);
+            }
+        }
+        commit(batch);
+    }
+
+    /**
+     * Writes and forces the records, completing their futures only if both succeed. A failed group is truncated
+     * from the segment, so a torn record does not hide the later groups from the replay, and a record whose
+     * registration is undone is not replayed either. If even the truncate fails, the writes go on in a new segment.
+     */
+    private void commit(final List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = -1;
+        try {
+            start = channel.position();
+            final ByteBuffer[] records = batch.stream().map(PendingWrite::record).toArray(ByteBuffer[]::new);
+            long remaining = batch.stream().mapToLong(pendingWrite -> pendingWrite.record().remaining()).sum();
+            while (remaining > 0) {
+                remaining -= channel.write(records);
+            }
+            unsynced = true;
+            if (fsyncPolicy == FsyncPolicy.ALWAYS
+                    || fsyncPolicy == FsyncPolicy.INTERVAL && System.nanoTime() - lastFsync >= fsyncIntervalNanos) {
+                force();
+            }
+            batch.forEach(pendingWrite -> pendingWrite.written().complete(null));
+        } catch (final IOException exception) {
+            log.error("Writing the write-ahead log failed", exception);
+            batch.forEach(pendingWrite -> pendingWrite.written().completeExceptionally(exception));
+            discard(start);
+        }
+    }
+
+    private void discard(final long start) {
+        if (start < 0) {
+            return;
+        }
+        try {
+            // Moves the position back to the start as well
+            channel.truncate(start);
+        } catch (final IOException exception) {
+            log.error("Truncating the write-ahead log failed, continuing in a new segment", exception);
+            try {
+                channel.close();
+            } catch (final IOException closeException) {
+                exception.addSuppressed(closeException);
+            }
+            channel = openSegment(++segment);
+        }
+    }
+
+    private void force() throws IOException {
+        channel.force(false);
+        lastFsync = System.nanoTime();
+        unsynced = false;
+    }
+
+    /**
+     * Forces the records written since the last interval, their futures are already complete
+     */
+    private void forceInterval() {
+        try {
+            force();
+        } catch (final IOException exception) {
+            log.error("Forcing the write-ahead log failed", exception);
+        }
+    }
+
+    private void rollSegment(final PendingWrite roll) {
+        try {
+            channel.force(false);
+            channel.close();
+            channel = openSegment(++segment);
+            roll.written().complete(null);
+        } catch (final IOException | UncheckedIOException exception) {
+            roll.written().completeExceptionally(exception);
+        }
+    }
+
+    private FileChannel openSegment(final long number) {
+        try {
+            return FileChannel.open(directory.resolve(SEGMENT_PREFIX + String.format("%012d", number) + SEGMENT_SUFFIX),
+                                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private record PendingWrite(ByteBuffer record, boolean roll, CompletableFuture<Void> written) {
+    }
+
+}
@@ -0,0 +1,316 @@
+package org.simple.booking.service.service.store;
+
+import org.simple.booking.service.domain.Booking;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Start-sorted index of the booked timeslots.
+ * The bookings are kept as primitive columns per start day, see DayColumns, the Booking objects
+ * of the results are only created when a result is consumed.
+ * The candidates of an interval query are pruned by the longest stored booking,
+ * a booking can only reach an instant if it starts less than that length before it,
+ * so every lookup costs O(log n + k) instead of scanning the whole store.
+ * The start of every booking is also indexed by its id, so a booking is found by its id in O(1) and removed in O(log n).
+ * The longest booking length only grows, a removal leaves the pruning window conservatively wide.
+ * Lookups are lock free and can run concurrently with additions and removals.
+ */
+public class BookingIndex {
+
+    private static final UUID NO_ID = new UUID(0, 0);
+
+    private final NavigableMap<Long, DayColumns> bookingsByStartDay = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Long> startsById = new ConcurrentHashMap<>();
+    private final AtomicLong longestBookingMinutes = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+    private final String resource;
+    private final ClientDictionary clients;
+
+    public BookingIndex(final String resource, final ClientDictionary clients) {
+        this.resource = resource;
+        this.clients = clients;
+    }
+
+    /**
+     * Adds the booking, unless a booking with the same start or the same id is already stored
+     */
+    public boolean add(final Booking booking) {
+        final long start = EpochMinutes.of(booking.getStart());
+        final long end = EpochMinutes.of(booking.getEnd());
+        // Widened before the insert, so a reader finding the booking always prunes with a large enough window
+        longestBookingMinutes.accumulateAndGet(end - start, Math::max);
+
+        final UUID id = booking.getId() == null ? NO_ID : UUID.fromString(booking.getId());
+        if (id != NO_ID && startsById.putIfAbsent(id, start) != null) {
+            return false;
+        }
+        final int client = clients.intern(booking.getClient());
+        final Long day = EpochMinutes.epochDay(start);
+        while (true) {
+            final DayColumns current = bookingsByStartDay.get(day);
+            final DayColumns updated = (current == null ? DayColumns.EMPTY : current)
+                    .insert(start, end, id.getMostSignificantBits(), id.getLeastSignificantBits(), client);
+            if (updated == null) {
+                startsById.remove(id, start);
+                return false;
+            }
+            if (current == null ? bookingsByStartDay.putIfAbsent(day, updated) == null : bookingsByStartDay.replace(day, current, updated)) {
+                size.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the booking if it is stored with the same id and start, the day of its start is dropped when it becomes empty
+     */
+    public boolean remove(final Booking booking) {
+        final UUID id = parseId(booking.getId());
+        if (id == null) {
+            return false;
+        }
+        final long start = EpochMinutes.of(booking.getStart());
+        final Long day = EpochMinutes.epochDay(start);
+        while (true) {
+            final DayColumns current = bookingsByStartDay.get(day);
+            final int index = current == null ? -1 : current.indexOf(start);
+            if (index < 0 || !hasId(current, index, id)) {
+                return false;
+            }
+            final DayColumns updated = current.remove(index);
+            if (updated.size() == 0 ? bookingsByStartDay.remove(day, current) : bookingsByStartDay.replace(day, current, updated)) {
+                startsById.remove(id, start);
+                size.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the booking with the given id, a malformed id is not found either
+     */
+    public Optional<Booking> findById(final String id) {
+        final UUID uuid = parseId(id);
+        final Long start = uuid == null ? null : startsById.get(uuid);
+        if (start == null) {
+            return Optional.empty();
+        }
+        final DayColumns columns = bookingsByStartDay.get(EpochMinutes.epochDay(start));
+        final int index = columns == null ? -1 : columns.indexOf(start);
+        // The id is indexed before the insert and unindexed after the removal, so the columns can lag behind
+        return index < 0 || !hasId(columns, index, uuid) ? Optional.empty() : Optional.of(toBooking(columns, index));
+    }
+
+    /**
+     * Returns the earliest booking overlapping the [start, end) interval.
+     */
+    public Optional<Booking> findOverlapping(final LocalDateTime start, final LocalDateTime end) {
+        final long startMinute = EpochMinutes.of(start);
+        final long endMinute = EpochMinutes.of(end);
+        return findFirst(startMinute - longestBookingMinutes.get(), endMinute, bookingEnd -> bookingEnd > startMinute);
+    }
+
+    /**
+     * Returns the earliest booking overlapping the [start, end) interval, except the one with the ignored id.
+     * A booking being rescheduled is checked against every other booking this way.
+     */
+    public Optional<Booking> findOverlapping(final LocalDateTime start, final LocalDateTime end, final String ignoredId) {
+        final UUID ignored = parseId(ignoredId);
+        if (ignored == null) {
+            return findOverlapping(start, end);
+        }
+        final String ignoredCanonicalId = ignored.toString();
+        return streamOverlapping(start, end)
+                .filter(booking -> !ignoredCanonicalId.equals(booking.getId()))
+                .findFirst();
+    }
+
+    /**
+     * Lazily streams every booking overlapping the [start, end) interval
+     */
+    public Stream<Booking> streamOverlapping(final LocalDateTime start, final LocalDateTime end) {
+        final long startMinute = EpochMinutes.of(start);
+        return streamRange(startMinute - longestBookingMinutes.get(), EpochMinutes.of(end), bookingEnd -> bookingEnd > startMinute);
+    }
+
+    /**
+     * Returns the earliest booking containing the given instant, the end of a booking is exclusive.
+     */
+    public Optional<Booking> findContaining(final LocalDateTime time) {
+        final long minute = EpochMinutes.of(time);
+        return findFirst(minute - longestBookingMinutes.get(), minute + 1, bookingEnd -> bookingEnd > minute);
+    }
+
+    /**
+     * Marks the intervals overlapping a stored booking. The intervals have to be sorted by start,
+     * they are checked in one merging sweep with the stored bookings, without building Booking objects.
+     * The sweep jumps over the days no interval can reach, so a sparse batch costs O(m log n) and a dense one O(n + m).
+     */
+    public BitSet findOverlapping(final long[] starts, final long[] ends) {
+        final BitSet overlapping = new BitSet(starts.length);
+        if (starts.length == 0) {
+            return overlapping;
+        }
+        final long longest = longestBookingMinutes.get();
+        final long to = Arrays.stream(ends).max().getAsLong();
+        Iterator<Map.Entry<Long, DayColumns>> days = Collections.emptyIterator();
+        long day = Long.MIN_VALUE;
+        DayColumns columns = DayColumns.EMPTY;
+        int index = 0;
+        // The latest end of the stored bookings starting before the current interval
+        long latestEnd = Long.MIN_VALUE;
+        for (int interval = 0; interval < starts.length; interval++) {
+            final long earliestCandidate = starts[interval] - longest;
+            if (day < EpochMinutes.epochDay(earliestCandidate)) {
+                // The bookings skipped start before the earliest candidate, so they end before the interval
+                days = days(earliestCandidate, to).entrySet().iterator();
+                day = EpochMinutes.epochDay(earliestCandidate);
+                columns = DayColumns.EMPTY;
+                index = 0;
+                latestEnd = Long.MIN_VALUE;
+            }
+            while (true) {
+                if (index == columns.size()) {
+                    if (!days.hasNext()) {
+                        break;
+                    }
+                    final Map.Entry<Long, DayColumns> next = days.next();
+                    day = next.getKey();
+                    columns = next.getValue();
+                    index = 0;
+                } else if (columns.starts[index] < starts[interval]) {
+                    latestEnd = Math.max(latestEnd, columns.ends[index++]);
+                } else {
+                    break;
+                }
+            }
+            if (latestEnd > starts[interval] || index < columns.size() && columns.starts[index] < ends[interval]) {
+                overlapping.set(interval);
+            }
+        }
+        return overlapping;
+    }
+
+    /**
+     * Returns the booking starting at the given minute.
+     */
+    public Optional<Booking> findByStart(final long startMinute) {
+        final DayColumns columns = bookingsByStartDay.get(EpochMinutes.epochDay(startMinute));
+        if (columns == null) {
+            return Optional.empty();
+        }
+        final int index = columns.indexOf(startMinute);
+        return index < 0 ? Optional.empty() : Optional.of(toBooking(columns, index));
+    }
+
+    /**
+     * Returns the bookings starting not before the start and ending before the end of the window.
+     */
+    public Stream<Booking> findWithin(final LocalDateTime start, final LocalDateTime end) {
+        final long endMinute = EpochMinutes.of(end);
+        return streamRange(EpochMinutes.of(start), endMinute, bookingEnd -> bookingEnd < endMinute);
+    }
+
+    public Stream<Booking> stream() {
+        return streamRange(Long.MIN_VALUE, Long.MAX_VALUE, bookingEnd -> true);
+    }
+
+    /**
+     * Returns the bookings starting after the cursor, or all of them without a cursor.
+     */
+    public Stream<Booking> streamAfter(final LocalDateTime after) {
+        if (after == null) {
+            return stream();
+        }
+        return streamRange(EpochMinutes.of(after) + 1, Long.MAX_VALUE, bookingEnd -> true);
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of days having a booking, it walks the days, so it is meant for the metrics only
+     */
+    public int dayCount() {
+        return bookingsByStartDay.size();
+    }
+
+    /**
+     * Returns the earliest booking starting in [from, to) whose end matches the filter
+     */
+    private Optional<Booking> findFirst(final long from, final long to, final LongPredicate endFilter) {
+        if (from >= to) {
+            return Optional.empty();
+        }
+        for (final DayColumns columns : days(from, to).values()) {
+            for (int i = columns.firstFrom(from); i < columns.size() && columns.starts[i] < to; i++) {
+                if (endFilter.test(columns.ends[i])) {
+                    return Optional.of(toBooking(columns, i));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Lazily streams the bookings starting in [from, to) whose end matches the filter
+     */
+    private Stream<Booking> streamRange(final long from, final long to, final LongPredicate endFilter) {
+        if (from >= to) {
+            return Stream.empty();
+        }
+        return days(from, to).values()
+                             .stream()
+                             .flatMap(columns -> IntStream.range(columns.firstFrom(from), columns.firstFrom(to))
+                                                          .filter(i -> endFilter.test(columns.ends[i]))
+                                                          .mapToObj(i -> toBooking(columns, i)));
+    }
+
+    private NavigableMap<Long, DayColumns> days(final long from, final long to) {
+        return bookingsByStartDay.subMap(EpochMinutes.epochDay(from), true, EpochMinutes.epochDay(to - 1), true);
+    }
+
+    private static boolean hasId(final DayColumns columns, final int index, final UUID id) {
+        return columns.idMostSigBits[index] == id.getMostSignificantBits() && columns.idLeastSigBits[index] == id.getLeastSignificantBits();
+    }
+
+    private static UUID parseId(final String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (final IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    private Booking toBooking(final DayColumns columns, final int index) {
+        final long idMostSig = columns.idMostSigBits[index];
+        final long idLeastSig = columns.idLeastSigBits[index];
+        return Booking.builder()
+                      .id(idMostSig == 0 && idLeastSig == 0 ? null : new UUID(idMostSig, idLeastSig).toString())
+                      .start(EpochMinutes.toLocalDateTime(columns.starts[index]))
+                      .end(EpochMinutes.toLocalDateTime(columns.ends[index]))
+                      .client(clients.name(columns.clients[index]))
+                      .resource(resource)
+                      .build();
+    }
+
+}
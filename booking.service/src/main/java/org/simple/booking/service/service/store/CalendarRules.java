@@ -0,0 +1,224 @@
+package org.simple.booking.service.service.store;
+
+import org.simple.booking.service.domain.CalendarSettings;
+import org.simple.booking.service.domain.TimeRange;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The calendar settings of a resource compiled into a bookable minute mask for every day of the bookable frame:
+ * a set bit for every minute of the working hours outside the breaks, none on the closed days and the holidays.
+ * The days of the same weekday share their mask, so a day of the frame costs a reference.
+ * A booking keeps every calendar rule if it starts on the granularity, its length is allowed and the mask of its day
+ * is set all over it, which is a lookup instead of comparing its times rule by rule.
+ * The free timeslots are the minimum length timeslots counted from midnight, the ones starting on the granularity
+ * and bookable all over are compiled into a bookable timeslot mask for every day the same way.
+ * The masks are never modified after the compilation.
+ */
+public class CalendarRules {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final BitSet CLOSED = new BitSet();
+
+    private final CalendarSettings settings;
+    private final long firstDay;
+    private final BitSet[] bookableMinutes;
+    private final BitSet[] bookableSlots;
+    private final int[] openingMinutes = new int[DayOfWeek.values().length];
+    private final int[] closingMinutes = new int[DayOfWeek.values().length];
+    private final int slotMinutes;
+    private final int slotsPerDay;
+
+    public CalendarRules(final CalendarSettings settings) {
+        this.settings = settings;
+        this.firstDay = settings.getTimeFrameStart().toEpochDay();
+        this.slotMinutes = settings.getTimeSlotMinDuration();
+        this.slotsPerDay = MINUTES_PER_DAY / slotMinutes;
+        final Map<DayOfWeek, BitSet> minutesByWeekday = new EnumMap<>(DayOfWeek.class);
+        final Map<DayOfWeek, BitSet> slotsByWeekday = new EnumMap<>(DayOfWeek.class);
+        for (final DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            final TimeRange hours = settings.getWorkingHours(dayOfWeek);
+            openingMinutes[dayOfWeek.ordinal()] = getMinuteOfDay(hours.start());
+            closingMinutes[dayOfWeek.ordinal()] = getMinuteOfDay(hours.end());
+            if (settings.getWorkdays().contains(dayOfWeek)) {
+                final BitSet minutes = compileMinutes(hours);
+                minutesByWeekday.put(dayOfWeek, minutes);
+                slotsByWeekday.put(dayOfWeek, compileSlots(minutes));
+            }
+        }
+
+        final int days = (int) Math.max(0, ChronoUnit.DAYS.between(settings.getTimeFrameStart(), settings.getTimeFrameEnd()) + 1);
+        this.bookableMinutes = new BitSet[days];
+        this.bookableSlots = new BitSet[days];
+        for (int index = 0; index < days; index++) {
+            final LocalDate day = settings.getTimeFrameStart().plusDays(index);
+            final boolean open = minutesByWeekday.containsKey(day.getDayOfWeek()) && !settings.getHolidays().contains(day);
+            bookableMinutes[index] = open ? minutesByWeekday.get(day.getDayOfWeek()) : CLOSED;
+            bookableSlots[index] = open ? slotsByWeekday.get(day.getDayOfWeek()) : CLOSED;
+        }
+    }
+
+    /**
+     * Whether the booking keeps every calendar rule: it starts on the granularity within the bookable frame,
+     * its length is allowed and every minute of it is bookable
+     */
+    public boolean isBookable(final LocalDateTime start, final LocalDateTime end) {
+        final long index = start.toLocalDate().toEpochDay() - firstDay;
+        if (index < 0 || index >= bookableMinutes.length || start.getSecond() != 0) {
+            return false;
+        }
+        final int startMinute = getMinuteOfDay(start);
+        final long endMinute = getEndMinute(start, end);
+        final long duration = endMinute - startMinute;
+        return startMinute % settings.getTimeSlotGranularity() == 0
+                && duration >= settings.getTimeSlotMinDuration()
+                && duration <= settings.getTimeSlotMaxDuration()
+                && duration % settings.getTimeSlotMinDuration() == 0
+                && endMinute <= MINUTES_PER_DAY
+                && bookableMinutes[(int) index].nextClearBit(startMinute) >= endMinute;
+    }
+
+    /**
+     * Whether the start is within the hours of its weekday and the end within the hours of its own,
+     * the days themselves are checked by the other rules
+     */
+    public boolean isWithinWorkingHours(final LocalDateTime start, final LocalDateTime end) {
+        return getMinuteOfDay(start) >= openingMinutes[start.getDayOfWeek().ordinal()]
+                && getMinuteOfDay(end) <= closingMinutes[end.getDayOfWeek().ordinal()];
+    }
+
+    public boolean isWorkday(final DayOfWeek dayOfWeek) {
+        return settings.getWorkdays().contains(dayOfWeek);
+    }
+
+    public boolean isWithinTimeFrame(final LocalDateTime start, final LocalDateTime end) {
+        return start.toLocalDate().toEpochDay() >= firstDay && end.toLocalDate().toEpochDay() < firstDay + bookableMinutes.length;
+    }
+
+    public boolean isOnGranularity(final LocalDateTime start) {
+        return start.getSecond() == 0 && getMinuteOfDay(start) % settings.getTimeSlotGranularity() == 0;
+    }
+
+    /**
+     * Returns the first holiday touched by the booking
+     */
+    public Optional<LocalDate> findHoliday(final LocalDateTime start, final LocalDateTime end) {
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(end.toLocalDate()); day = day.plusDays(1)) {
+            if (settings.getHolidays().contains(day)) {
+                return Optional.of(day);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the first break overlapped by the booking on the day of its start
+     */
+    public Optional<TimeRange> findBreak(final LocalDateTime start, final LocalDateTime end) {
+        final int startMinute = getMinuteOfDay(start);
+        final long endMinute = getEndMinute(start, end);
+        return settings.getBreaks()
+                       .stream()
+                       .filter(pause -> getMinuteOfDay(pause.start()) < endMinute && startMinute < getMinuteOfDay(pause.end()))
+                       .findFirst();
+    }
+
+    /**
+     * Returns the bookable minutes of the day, none outside the frame. It must not be modified.
+     */
+    public BitSet getBookableMinutes(final LocalDate day) {
+        final int index = getDayIndex(day);
+        return index < 0 ? CLOSED : bookableMinutes[index];
+    }
+
+    /**
+     * Returns the index of the day in the bookable frame, or -1 outside of it
+     */
+    public int getDayIndex(final LocalDate day) {
+        final long index = day.toEpochDay() - firstDay;
+        return index < 0 || index >= bookableMinutes.length ? -1 : (int) index;
+    }
+
+    public LocalDate getDay(final int index) {
+        return LocalDate.ofEpochDay(firstDay + index);
+    }
+
+    /**
+     * The number of days of the bookable frame
+     */
+    public int getDayCount() {
+        return bookableMinutes.length;
+    }
+
+    public int getGranularity() {
+        return settings.getTimeSlotGranularity();
+    }
+
+    /**
+     * Whether the day has any bookable timeslot
+     */
+    public boolean isBookableDay(final LocalDate day) {
+        return !getBookableSlots(day).isEmpty();
+    }
+
+    /**
+     * Returns the bookable timeslots of the day, the n-th timeslot starts n * slotMinutes after midnight. It must not be modified.
+     */
+    public BitSet getBookableSlots(final LocalDate day) {
+        final int index = getDayIndex(day);
+        return index < 0 ? CLOSED : bookableSlots[index];
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    private BitSet compileMinutes(final TimeRange hours) {
+        final BitSet minutes = new BitSet(MINUTES_PER_DAY);
+        minutes.set(getMinuteOfDay(hours.start()), getMinuteOfDay(hours.end()));
+        for (final TimeRange pause : settings.getBreaks()) {
+            minutes.clear(getMinuteOfDay(pause.start()), getMinuteOfDay(pause.end()));
+        }
+        return minutes;
+    }
+
+    private BitSet compileSlots(final BitSet minutes) {
+        final BitSet slots = new BitSet(slotsPerDay);
+        for (int slot = 0; slot < slotsPerDay; slot++) {
+            final int startMinute = slot * slotMinutes;
+            if (startMinute % settings.getTimeSlotGranularity() == 0 && minutes.nextClearBit(startMinute) >= startMinute + slotMinutes) {
+                slots.set(slot);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * The end in minutes from the midnight starting the day of the start
+     */
+    private static long getEndMinute(final LocalDateTime start, final LocalDateTime end) {
+        return (end.toLocalDate().toEpochDay() - start.toLocalDate().toEpochDay()) * MINUTES_PER_DAY + getMinuteOfDay(end);
+    }
+
+    private static int getMinuteOfDay(final LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int getMinuteOfDay(final LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+}
@@ -0,0 +1,55 @@
+package org.simple.booking.service.service.store;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the client names of a calendar, the store keeps only their int ids.
+ * The names are published by replacing the whole array, so lookups by id need no locking.
+ */
+public class ClientDictionary {
+
+    public static final int NO_CLIENT = -1;
+
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private int size;
+
+    public int intern(final String name) {
+        if (name == null) {
+            return NO_CLIENT;
+        }
+        final Integer id = idsByName.get(name);
+        return id != null ? id : register(name);
+    }
+
+    /**
+     * Returns the id of the name without registering it, NO_CLIENT if it is unknown.
+     */
+    public int find(final String name) {
+        return name == null ? NO_CLIENT : idsByName.getOrDefault(name, NO_CLIENT);
+    }
+
+    public String name(final int id) {
+        return id == NO_CLIENT ? null : names[id];
+    }
+
+    private synchronized int register(final String name) {
+        final Integer registered = idsByName.get(name);
+        if (registered != null) {
+            return registered;
+        }
+        String[] updatedNames = names;
+        if (size == updatedNames.length) {
+            updatedNames = Arrays.copyOf(updatedNames, size * 2);
+        }
+        updatedNames[size] = name;
+        // The array is published before the id, so whoever sees the id can resolve it
+        names = updatedNames;
+        idsByName.put(name, size);
+
+        return size++;
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.simple.booking.service.service.store;
+
+import org.simple.booking.service.domain.Booking;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Secondary index of the booked timeslots by client, sorted by start.
+ * It keeps only the start minutes of the bookings per client id, the bookings are read from the primary store.
+ * The set of a client is removed with its last booking, it is only changed within the compute of its entry.
+ */
+public class ClientIndex {
+
+    private final Map<Integer, NavigableSet<Long>> startsByClient = new ConcurrentHashMap<>();
+    private final BookingIndex bookingIndex;
+    private final ClientDictionary clients;
+
+    public ClientIndex(final BookingIndex bookingIndex, final ClientDictionary clients) {
+        this.bookingIndex = bookingIndex;
+        this.clients = clients;
+    }
+
+    public void add(final Booking booking) {
+        if (booking.getClient() != null) {
+            startsByClient.compute(clients.intern(booking.getClient()), (client, starts) -> {
+                final NavigableSet<Long> clientStarts = starts == null ? new ConcurrentSkipListSet<>() : starts;
+                clientStarts.add(EpochMinutes.of(booking.getStart()));
+                return clientStarts;
+            });
+        }
+    }
+
+    public void remove(final Booking booking) {
+        startsByClient.computeIfPresent(clients.find(booking.getClient()), (client, starts) -> {
+            starts.remove(EpochMinutes.of(booking.getStart()));
+            return starts.isEmpty() ? null : starts;
+        });
+    }
+
+    /**
+     * Returns the bookings of the client in ascending start order. Every bound is optional:
+     * start is inclusive, the bookings have to end before the end, and after is an exclusive
+     * start cursor, the start of the last booking of the previous page.
+     * A start can be cancelled and booked by another client while the stream is read, so the client is checked again.
+     */
+    public Stream<Booking> find(final String client, final LocalDateTime start, final LocalDateTime end, final LocalDateTime after) {
+        NavigableSet<Long> starts = startsByClient.get(clients.find(client));
+        if (starts == null) {
+            return Stream.empty();
+        }
+        final boolean cursorIsLowerBound = after != null && (start == null || !after.isBefore(start));
+        final LocalDateTime lowerBound = cursorIsLowerBound ? after : start;
+        if (lowerBound != null && end != null && end.isBefore(lowerBound)) {
+            return Stream.empty();
+        }
+        if (lowerBound != null) {
+            starts = starts.tailSet(EpochMinutes.of(lowerBound), !cursorIsLowerBound);
+        }
+        if (end != null) {
+            starts = starts.headSet(EpochMinutes.of(end), false);
+        }
+
+        return starts.stream()
+                     .map(bookingIndex::findByStart)
+                     .flatMap(Optional::stream)
+                     .filter(booking -> client.equals(booking.getClient()))
+                     .filter(booking -> end == null || booking.getEnd().isBefore(end));
+    }
+
+}
@@ -0,0 +1,106 @@
+package org.simple.booking.service.service.store;
+
+import java.util.Arrays;
+
+/**
+ * The bookings starting on one day as primitive columns sorted by start: start and end in epoch minutes,
+ * the two halves of the id and the client id. An instance is never modified, an insert or a removal returns a new copy.
+ * A day holds a handful of bookings, so copying it is cheaper than keeping an object per booking.
+ */
+final class DayColumns {
+
+    static final DayColumns EMPTY = new DayColumns(new long[0], new long[0], new long[0], new long[0], new int[0]);
+
+    final long[] starts;
+    final long[] ends;
+    final long[] idMostSigBits;
+    final long[] idLeastSigBits;
+    final int[] clients;
+
+    private DayColumns(final long[] starts, final long[] ends, final long[] idMostSigBits, final long[] idLeastSigBits,
+                       final int[] clients) {
+        this.starts = starts;
+        this.ends = ends;
+        this.idMostSigBits = idMostSigBits;
+        this.idLeastSigBits = idLeastSigBits;
+        this.clients = clients;
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    /**
+     * Returns the position of the start, or (-(insertion point) - 1) if there is no booking starting then
+     */
+    int indexOf(final long start) {
+        return Arrays.binarySearch(starts, start);
+    }
+
+    /**
+     * Returns the position of the first booking starting at or after the given minute
+     */
+    int firstFrom(final long start) {
+        final int index = indexOf(start);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Returns a copy with the booking inserted, or null if a booking already starts at the same minute
+     */
+    DayColumns insert(final long start, final long end, final long idMostSig, final long idLeastSig, final int client) {
+        final int index = indexOf(start);
+        if (index >= 0) {
+            return null;
+        }
+        final int position = -index - 1;
+
+        return new DayColumns(insert(starts, position, start),
+                              insert(ends, position, end),
+                              insert(idMostSigBits, position, idMostSig),
+                              insert(idLeastSigBits, position, idLeastSig),
+                              insert(clients, position, client));
+    }
+
+    /**
+     * Returns a copy without the booking at the position
+     */
+    DayColumns remove(final int position) {
+        return new DayColumns(remove(starts, position),
+                              remove(ends, position),
+                              remove(idMostSigBits, position),
+                              remove(idLeastSigBits, position),
+                              remove(clients, position));
+    }
+
+    private static long[] insert(final long[] column, final int position, final long value) {
+        final long[] updated = new long[column.length + 1];
+        System.arraycopy(column, 0, updated, 0, position);
+        updated[position] = value;
+        System.arraycopy(column, position, updated, position + 1, column.length - position);
+        return updated;
+    }
+
+    private static int[] insert(final int[] column, final int position, final int value) {
+        final int[] updated = new int[column.length + 1];
+        System.arraycopy(column, 0, updated, 0, position);
+        updated[position] = value;
+        System.arraycopy(column, position, updated, position + 1, column.length - position);
+        return updated;
+    }
+
+    private static long[] remove(final long[] column, final int position) {
+        final long[] updated = new long[column.length - 1];
+        System.arraycopy(column, 0, updated, 0, position);
+        System.arraycopy(column, position + 1, updated, position, column.length - position - 1);
+        return updated;
+    }
+
+    private static int[] remove(final int[] column, final int position) {
+        final int[] updated = new int[column.length - 1];
+        System.arraycopy(column, 0, updated, 0, position);
+        System.arraycopy(column, position + 1, updated, position, column.length - position - 1);
+        return updated;
+    }
+
+}
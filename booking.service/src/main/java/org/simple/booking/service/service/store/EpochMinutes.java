@@ -0,0 +1,45 @@
+package org.simple.booking.service.service.store;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Converts between the LocalDateTime of the API and the minutes since the epoch the store works with.
+ * The booking times have no zone, UTC is only used to count the minutes.
+ */
+public final class EpochMinutes {
+
+    public static final long MINUTES_PER_DAY = 24 * 60;
+
+    private EpochMinutes() {
+    }
+
+    public static long of(final LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    public static LocalDateTime toLocalDateTime(final long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    public static long epochDay(final long epochMinute) {
+        return Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+    }
+
+    /**
+     * The minute of the midnight starting the day
+     */
+    public static long startOfDay(final LocalDate day) {
+        return day.toEpochDay() * MINUTES_PER_DAY;
+    }
+
+    /**
+     * Returns the day after the given one, or null after the last day, so a loop over the days of a booking
+     * does not create a day past its end
+     */
+    public static LocalDate nextDay(final LocalDate day, final LocalDate lastDay) {
+        return day.isBefore(lastDay) ? day.plusDays(1) : null;
+    }
+
+}
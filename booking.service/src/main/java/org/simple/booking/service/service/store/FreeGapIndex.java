@@ -0,0 +1,191 @@
+package org.simple.booking.service.service.store;
+
+import org.simple.booking.service.domain.Booking;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.simple.booking.service.service.store.CalendarRules.MINUTES_PER_DAY;
+
+/**
+ * Keeps the free minutes of every booked day, the bookable minutes of the calendar rules not overlapped by a booking,
+ * and the longest run of free minutes of every day of the frame in a max segment tree.
+ * The first day with a gap of a given length is found by descending the tree, in logarithmic time of the frame length,
+ * and the gaps of a day are its runs of set bits, so a free timeslot of any length is found without listing
+ * the minimum length timeslots. The free minutes of a day are copied on write like the occupancy bitmap,
+ * the days without a booking share the masks of the calendar rules.
+ */
+public class FreeGapIndex {
+
+    private final CalendarRules rules;
+    private final Map<LocalDate, BitSet> freeMinutesByDay = new ConcurrentHashMap<>();
+    private final int leaves;
+    private final int[] longestGaps;
+
+    public FreeGapIndex(final CalendarRules rules) {
+        this.rules = rules;
+        this.leaves = Integer.highestOneBit(Math.max(1, rules.getDayCount() - 1)) << 1;
+        this.longestGaps = new int[2 * leaves];
+        for (int index = 0; index < rules.getDayCount(); index++) {
+            longestGaps[leaves + index] = getLongestGap(rules.getBookableMinutes(rules.getDay(index)));
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            longestGaps[node] = Math.max(longestGaps[2 * node], longestGaps[2 * node + 1]);
+        }
+    }
+
+    public void markBooked(final Booking booking) {
+        for (LocalDate day = booking.getStart().toLocalDate(); day != null; day = EpochMinutes.nextDay(day, booking.getEnd().toLocalDate())) {
+            final int dayIndex = rules.getDayIndex(day);
+            if (dayIndex >= 0) {
+                update(dayIndex, freeMinutesByDay.compute(day, (d, freeMinutes) -> {
+                    final BitSet updatedMinutes = (BitSet) (freeMinutes == null ? rules.getBookableMinutes(d) : freeMinutes).clone();
+                    clearMinutes(d, updatedMinutes, booking);
+                    return updatedMinutes;
+                }));
+            }
+        }
+    }
+
+    /**
+     * Frees the bookable minutes of a removed booking, except the ones still overlapped by the neighbours
+     */
+    public void markFree(final Booking booking, final Collection<Booking> neighbours) {
+        for (LocalDate day = booking.getStart().toLocalDate(); day != null; day = EpochMinutes.nextDay(day, booking.getEnd().toLocalDate())) {
+            final int dayIndex = rules.getDayIndex(day);
+            final BitSet freeMinutes = dayIndex < 0 ? null : freeMinutesByDay.computeIfPresent(day, (d, minutes) -> {
+                final BitSet updatedMinutes = (BitSet) minutes.clone();
+                final BitSet freedMinutes = new BitSet(MINUTES_PER_DAY);
+                final int startMinute = getStartMinute(d, booking);
+                final int endMinute = getEndMinute(d, booking);
+                if (startMinute < endMinute) {
+                    freedMinutes.set(startMinute, endMinute);
+                }
+                freedMinutes.and(rules.getBookableMinutes(d));
+                updatedMinutes.or(freedMinutes);
+                neighbours.forEach(neighbour -> clearMinutes(d, updatedMinutes, neighbour));
+                return updatedMinutes;
+            });
+            if (freeMinutes != null) {
+                update(dayIndex, freeMinutes);
+            }
+        }
+    }
+
+    /**
+     * Returns the published free minutes of the day. It must not be modified.
+     */
+    public BitSet getFreeMinutes(final LocalDate day) {
+        final BitSet freeMinutes = freeMinutesByDay.get(day);
+        return freeMinutes != null ? freeMinutes : rules.getBookableMinutes(day);
+    }
+
+    /**
+     * Returns the first day from the given one with a gap of at least the given minutes, or null
+     */
+    public LocalDate findDay(final LocalDate fromDay, final int minutes) {
+        final int fromIndex = Math.max(0, (int) Math.min(Integer.MAX_VALUE, ChronoUnit.DAYS.between(rules.getDay(0), fromDay)));
+        final int dayIndex;
+        synchronized (longestGaps) {
+            dayIndex = findDay(1, 0, leaves, fromIndex, minutes);
+        }
+        return dayIndex < 0 || dayIndex >= rules.getDayCount() ? null : rules.getDay(dayIndex);
+    }
+
+    /**
+     * Returns the first minute of the day from the given one, which starts a free timeslot of the given length
+     * on the granularity, or -1 if the day has none
+     */
+    public int findStart(final LocalDate day, final int fromMinute, final int minutes, final int granularity) {
+        final BitSet freeMinutes = getFreeMinutes(day);
+        int minute = Math.max(0, fromMinute);
+        while (minute + minutes <= MINUTES_PER_DAY) {
+            final int gapStart = freeMinutes.nextSetBit(minute);
+            if (gapStart < 0) {
+                return -1;
+            }
+            final int gapEnd = freeMinutes.nextClearBit(gapStart);
+            final int start = -Math.floorDiv(-gapStart, granularity) * granularity;
+            if (start + minutes <= gapEnd) {
+                return start;
+            }
+            minute = gapEnd;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the start and the end minute of the longest gap of the day, the earliest of the equally long ones,
+     * or null if the day has no free minute
+     */
+    public int[] findLongestGap(final LocalDate day) {
+        final BitSet freeMinutes = getFreeMinutes(day);
+        int[] longestGap = null;
+        for (int start = freeMinutes.nextSetBit(0); start >= 0; start = freeMinutes.nextSetBit(start)) {
+            final int end = freeMinutes.nextClearBit(start);
+            if (longestGap == null || end - start > longestGap[1] - longestGap[0]) {
+                longestGap = new int[]{start, end};
+            }
+            start = end;
+        }
+        return longestGap;
+    }
+
+    private void update(final int dayIndex, final BitSet freeMinutes) {
+        final int longestGap = getLongestGap(freeMinutes);
+        synchronized (longestGaps) {
+            int node = leaves + dayIndex;
+            longestGaps[node] = longestGap;
+            for (node /= 2; node > 0; node /= 2) {
+                longestGaps[node] = Math.max(longestGaps[2 * node], longestGaps[2 * node + 1]);
+            }
+        }
+    }
+
+    /**
+     * Descends to the first leaf from the given index with a value of at least the given minutes,
+     * the subtrees ending before the index or without such a leaf are skipped
+     */
+    private int findDay(final int node, final int nodeStart, final int nodeEnd, final int fromIndex, final int minutes) {
+        if (nodeEnd <= fromIndex || longestGaps[node] < minutes) {
+            return -1;
+        }
+        if (nodeEnd - nodeStart == 1) {
+            return nodeStart;
+        }
+        final int middle = (nodeStart + nodeEnd) >>> 1;
+        final int found = findDay(2 * node, nodeStart, middle, fromIndex, minutes);
+        return found >= 0 ? found : findDay(2 * node + 1, middle, nodeEnd, fromIndex, minutes);
+    }
+
+    private static int getLongestGap(final BitSet freeMinutes) {
+        int longestGap = 0;
+        for (int start = freeMinutes.nextSetBit(0); start >= 0; start = freeMinutes.nextSetBit(start)) {
+            final int end = freeMinutes.nextClearBit(start);
+            longestGap = Math.max(longestGap, end - start);
+            start = end;
+        }
+        return longestGap;
+    }
+
+    private static void clearMinutes(final LocalDate day, final BitSet freeMinutes, final Booking booking) {
+        final int startMinute = getStartMinute(day, booking);
+        final int endMinute = getEndMinute(day, booking);
+        if (startMinute < endMinute) {
+            freeMinutes.clear(startMinute, endMinute);
+        }
+    }
+
+    private static int getStartMinute(final LocalDate day, final Booking booking) {
+        return (int) Math.max(0, EpochMinutes.of(booking.getStart()) - EpochMinutes.startOfDay(day));
+    }
+
+    private static int getEndMinute(final LocalDate day, final Booking booking) {
+        return (int) Math.min(MINUTES_PER_DAY, EpochMinutes.of(booking.getEnd()) - EpochMinutes.startOfDay(day));
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.simple.booking.service.service.store;
+
+import org.simple.booking.service.domain.Booking;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Least recently used cache of the free timeslots of the days, shared by the calendars of every resource,
+ * so its memory is bounded by the number of days it holds. An entry remembers the occupancy bitmap it was
+ * computed from, and as the bitmaps are copied on write, it is only served while its day still has the same one.
+ * A booking registered or cancelled during the computation of an entry therefore cannot leave a stale entry behind,
+ * the invalidation on every change only frees the memory early.
+ */
+public class FreeSlotCache {
+
+    private final int maxDays;
+    private final Map<DayKey, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxDays the number of days kept, 0 disables the cache
+     */
+    public FreeSlotCache(final int maxDays) {
+        this.maxDays = maxDays;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<DayKey, Entry> eldest) {
+                if (size() > maxDays) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the free timeslots of the day computed from the given occupancy bitmap of the day.
+     * The loader runs outside the lock of the cache, its result has to be immutable.
+     */
+    public List<Booking> get(final String resource, final LocalDate day, final BitSet bookedSlots, final Supplier<List<Booking>> loader) {
+        if (maxDays == 0) {
+            misses.increment();
+            return loader.get();
+        }
+        final DayKey key = new DayKey(resource, day);
+        final Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null && cached.bookedSlots() == bookedSlots) {
+            hits.increment();
+            return cached.freeSlots();
+        }
+
+        misses.increment();
+        final List<Booking> freeSlots = loader.get();
+        synchronized (entries) {
+            entries.put(key, new Entry(bookedSlots, freeSlots));
+        }
+        return freeSlots;
+    }
+
+    public void invalidate(final String resource, final LocalDate day) {
+        if (maxDays == 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.remove(new DayKey(resource, day));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private record DayKey(String resource, LocalDate day) {
+    }
+
+    private record Entry(BitSet bookedSlots, List<Booking> freeSlots) {
+    }
+
+}
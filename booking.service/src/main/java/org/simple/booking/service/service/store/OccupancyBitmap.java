@@ -0,0 +1,116 @@
+package org.simple.booking.service.service.store;
+
+import org.simple.booking.service.domain.Booking;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps a bitmap per day with one bit for every minimum length timeslot of the day, counted from midnight.
+ * A set bit means that a booking overlaps the timeslot, so the free timeslots of a day
+ * are the bookable timeslots of the calendar rules with a clear bit, listed without looking at the bookings at all.
+ * The bitmap of a day is copied on write, the published ones are never modified,
+ * so readers do not need any locking.
+ */
+public class OccupancyBitmap {
+
+    private final Map<LocalDate, BitSet> bookedSlotsByDay = new ConcurrentHashMap<>();
+    private final int slotMinutes;
+    private final int slotsPerDay;
+
+    public OccupancyBitmap(final int slotMinutes, final int slotsPerDay) {
+        this.slotMinutes = slotMinutes;
+        this.slotsPerDay = slotsPerDay;
+    }
+
+    public void markBooked(final Booking booking) {
+        for (LocalDate day = booking.getStart().toLocalDate(); day != null; day = EpochMinutes.nextDay(day, booking.getEnd().toLocalDate())) {
+            final int firstSlot = firstSlot(day, booking);
+            final int lastSlotExclusive = lastSlotExclusive(day, booking);
+            if (firstSlot < lastSlotExclusive) {
+                bookedSlotsByDay.compute(day, (d, bookedSlots) -> markSlots(bookedSlots, firstSlot, lastSlotExclusive));
+            }
+        }
+    }
+
+    /**
+     * Clears the timeslots of a removed booking, except the ones still overlapped by the neighbours,
+     * the stored bookings overlapping the timeslots of the removed one. Every day is published once,
+     * so a reader never sees a timeslot of a neighbour free.
+     */
+    public void markFree(final Booking booking, final Collection<Booking> neighbours) {
+        for (LocalDate day = booking.getStart().toLocalDate(); day != null; day = EpochMinutes.nextDay(day, booking.getEnd().toLocalDate())) {
+            final int firstSlot = firstSlot(day, booking);
+            final int lastSlotExclusive = lastSlotExclusive(day, booking);
+            if (firstSlot < lastSlotExclusive) {
+                bookedSlotsByDay.computeIfPresent(day, (d, bookedSlots) -> clearSlots(d, bookedSlots, firstSlot, lastSlotExclusive, neighbours));
+            }
+        }
+    }
+
+    /**
+     * Returns the published bitmap of the day, or null if nothing was booked on it.
+     * Every booking publishes a new bitmap, so the same instance means the same occupancy. It must not be modified.
+     */
+    public BitSet getBookedSlots(final LocalDate day) {
+        return bookedSlotsByDay.get(day);
+    }
+
+    /**
+     * Returns the indexes of the bookable timeslots of the day not set in a bitmap returned by getBookedSlots,
+     * in ascending order, the n-th timeslot starts n * slotMinutes after midnight
+     */
+    public IntStream getFreeSlots(final BitSet bookableSlots, final BitSet bookedSlots) {
+        if (bookedSlots == null) {
+            return bookableSlots.stream();
+        }
+
+        return IntStream.iterate(nextFreeSlot(bookableSlots, bookedSlots, 0), slot -> slot >= 0,
+                                 slot -> nextFreeSlot(bookableSlots, bookedSlots, slot + 1));
+    }
+
+    private int nextFreeSlot(final BitSet bookableSlots, final BitSet bookedSlots, final int fromSlot) {
+        int slot = bookableSlots.nextSetBit(fromSlot);
+        while (slot >= 0 && bookedSlots.get(slot)) {
+            slot = bookableSlots.nextSetBit(slot + 1);
+        }
+        return slot;
+    }
+
+    private BitSet clearSlots(final LocalDate day, final BitSet bookedSlots, final int firstSlot, final int lastSlotExclusive,
+                              final Collection<Booking> neighbours) {
+        final BitSet updatedSlots = (BitSet) bookedSlots.clone();
+        updatedSlots.clear(firstSlot, lastSlotExclusive);
+        for (final Booking neighbour : neighbours) {
+            final int neighbourFirstSlot = firstSlot(day, neighbour);
+            final int neighbourLastSlotExclusive = lastSlotExclusive(day, neighbour);
+            if (neighbourFirstSlot < neighbourLastSlotExclusive) {
+                updatedSlots.set(neighbourFirstSlot, neighbourLastSlotExclusive);
+            }
+        }
+
+        return updatedSlots;
+    }
+
+    private int firstSlot(final LocalDate day, final Booking booking) {
+        final long startOffset = EpochMinutes.of(booking.getStart()) - EpochMinutes.startOfDay(day);
+        return (int) Math.max(0, Math.floorDiv(startOffset, slotMinutes));
+    }
+
+    private int lastSlotExclusive(final LocalDate day, final Booking booking) {
+        final long endOffset = EpochMinutes.of(booking.getEnd()) - EpochMinutes.startOfDay(day);
+        return (int) Math.min(slotsPerDay, -Math.floorDiv(-endOffset, slotMinutes));
+    }
+
+    private BitSet markSlots(final BitSet bookedSlots, final int firstSlot, final int lastSlotExclusive) {
+        final BitSet updatedSlots = bookedSlots == null ? new BitSet(slotsPerDay) : (BitSet) bookedSlots.clone();
+        updatedSlots.set(firstSlot, lastSlotExclusive);
+
+        return updatedSlots;
+    }
+
+}
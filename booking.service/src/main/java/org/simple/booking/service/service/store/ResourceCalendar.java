@@ -0,0 +1,142 @@
+package org.simple.booking.service.service.store;
+
+import lombok.Getter;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.CalendarSettings;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The booking store partition of a single bookable resource, with its own indexes and day locks,
+ * so the load on one resource does not slow down the others. Its settings are compiled into its rules once, when it is created.
+ */
+@Getter
+public class ResourceCalendar {
+
+    private final String resource;
+    private final CalendarSettings settings;
+    private final CalendarRules rules;
+    private final BookingIndex timeSlotStore;
+    private final OccupancyBitmap occupancy;
+    private final FreeGapIndex freeGaps;
+    private final ClientIndex clientIndex;
+    private final FreeSlotCache freeSlotCache;
+    private final Map<LocalDate, Lock> dayLocks;
+
+    public ResourceCalendar(final String resource, final CalendarSettings settings, final FreeSlotCache freeSlotCache) {
+        this.resource = resource;
+        this.settings = settings;
+        this.rules = new CalendarRules(settings);
+        final ClientDictionary clients = new ClientDictionary();
+        this.timeSlotStore = new BookingIndex(resource, clients);
+        this.occupancy = new OccupancyBitmap(rules.getSlotMinutes(), rules.getSlotsPerDay());
+        this.freeGaps = new FreeGapIndex(rules);
+        this.clientIndex = new ClientIndex(timeSlotStore, clients);
+        this.freeSlotCache = freeSlotCache;
+        this.dayLocks = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Runs the action while holding the lock of every day touched by the booking.
+     * Overlapping bookings always share a day, so the overlap check and the insert of the action
+     * are atomic against each other, while bookings on different days can proceed in parallel.
+     * The locks are taken in ascending day order to avoid deadlocks, a booking within a single day, the usual one,
+     * takes its only lock without collecting the days.
+     */
+    public <T> T executeLocked(final Booking booking, final Supplier<T> action) {
+        final LocalDate day = booking.getStart().toLocalDate();
+        if (!day.equals(booking.getEnd().toLocalDate())) {
+            return executeLocked(List.of(booking), action);
+        }
+        final Lock lock = dayLocks.computeIfAbsent(day, d -> new ReentrantLock());
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the action while holding the lock of every day touched by any of the bookings
+     */
+    public <T> T executeLocked(final Collection<Booking> bookings, final Supplier<T> action) {
+        final SortedSet<LocalDate> days = new TreeSet<>();
+        for (final Booking booking : bookings) {
+            for (LocalDate day = booking.getStart().toLocalDate(); day != null; day = EpochMinutes.nextDay(day, booking.getEnd().toLocalDate())) {
+                days.add(day);
+            }
+        }
+        final List<Lock> locks = new ArrayList<>();
+        for (final LocalDate day : days) {
+            locks.add(dayLocks.computeIfAbsent(day, d -> new ReentrantLock()));
+        }
+        locks.forEach(Lock::lock);
+        try {
+            return action.get();
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    /**
+     * Adds the booking unless a booking with the same start or id is stored, returns whether it was added
+     */
+    public boolean addBooking(final Booking booking) {
+        if (!timeSlotStore.add(booking)) {
+            return false;
+        }
+        occupancy.markBooked(booking);
+        freeGaps.markBooked(booking);
+        clientIndex.add(booking);
+        invalidateFreeSlots(booking);
+        return true;
+    }
+
+    /**
+     * Removes the stored booking from the store and every view derived from it,
+     * a timeslot partly covered by a neighbouring booking stays booked.
+     */
+    public boolean removeBooking(final Booking booking) {
+        if (!timeSlotStore.remove(booking)) {
+            return false;
+        }
+        final int slotMinutes = settings.getTimeSlotMinDuration();
+        final List<Booking> neighbours = timeSlotStore.streamOverlapping(booking.getStart().minusMinutes(slotMinutes),
+                                                                         booking.getEnd().plusMinutes(slotMinutes))
+                                                      .toList();
+        occupancy.markFree(booking, neighbours);
+        freeGaps.markFree(booking, neighbours);
+        clientIndex.remove(booking);
+        invalidateFreeSlots(booking);
+        return true;
+    }
+
+    /**
+     * Replaces the stored booking with the moved one, the days of both have to be locked.
+     * If a booking already starts at the new start, which only happens while the log is replayed over a newer snapshot,
+     * the booking stays where it is, and its own later record moves it on.
+     */
+    public void moveBooking(final Booking booking, final Booking movedBooking) {
+        if (removeBooking(booking) && !addBooking(movedBooking)) {
+            addBooking(booking);
+        }
+    }
+
+    private void invalidateFreeSlots(final Booking booking) {
+        for (LocalDate day = booking.getStart().toLocalDate(); day != null; day = EpochMinutes.nextDay(day, booking.getEnd().toLocalDate())) {
+            freeSlotCache.invalidate(resource, day);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package org.simple.booking.service.throttling;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admits at most max concurrent requests, the others wait in its queue at most the max queue time and are shed after it.
+ * The accept queue of the server cannot be observed, so the wait for a permit is the queue latency of the service.
+ * Once a request is shed, the ones arriving within the next max queue time are shed at once if no permit is free,
+ * instead of waiting for it too, so a sustained overload is answered early and the queue does not grow.
+ * A permit only covers the request thread, a streamed response goes on after it is released.
+ */
+public class LoadShedder {
+
+    private final int maxConcurrentRequests;
+    private final long maxQueueNanos;
+    private final Semaphore permits;
+    private final AtomicLong overloadedUntil;
+
+    public LoadShedder(final int maxConcurrentRequests, final long maxQueueMillis) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueMillis);
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.overloadedUntil = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Returns whether the request is admitted, an admitted request has to release its permit
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (overloadedUntil.get() - System.nanoTime() > 0) {
+            return false;
+        }
+        if (permits.tryAcquire(maxQueueNanos, TimeUnit.NANOSECONDS)) {
+            return true;
+        }
+        overloadedUntil.set(System.nanoTime() + maxQueueNanos);
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getInFlight() {
+        return maxConcurrentRequests - permits.availablePermits();
+    }
+
+}
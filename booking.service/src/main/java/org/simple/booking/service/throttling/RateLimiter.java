@@ -0,0 +1,115 @@
+package org.simple.booking.service.throttling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A token bucket for every client and request class, kept as the time the bucket is full again,
+ * so taking a token is a single compare and set without a refill thread: a request takes one interval of the rate,
+ * and the bucket is empty when its full time is a burst of intervals ahead.
+ * At most max clients are kept. A new client above the maximum first sweeps out the buckets which are full again,
+ * those have no state to lose, at most once a second and only by the request winning the turn.
+ * If every kept client is still active, the new clients share an overflow bucket, the well-behaved ones included,
+ * so the clients are keyed by their address and a single address cannot claim more than one bucket per proxied client.
+ */
+public class RateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long SWEEP_INTERVAL_NANOS = NANOS_PER_SECOND;
+
+    private final long[] intervalNanos = new long[RequestClass.values().length];
+    private final long[] burstNanos = new long[RequestClass.values().length];
+    private final int maxClients;
+    private final Map<String, AtomicLongArray> buckets = new ConcurrentHashMap<>();
+    private final AtomicLongArray overflow;
+    private final AtomicLong nextSweep;
+
+    /**
+     * The rates are in requests per second, a class with a rate of 0 is not limited
+     */
+    public RateLimiter(final Map<RequestClass, Double> requestsPerSecond, final Map<RequestClass, Integer> bursts, final int maxClients) {
+        for (final RequestClass requestClass : RequestClass.values()) {
+            final double rate = requestsPerSecond.get(requestClass);
+            intervalNanos[requestClass.ordinal()] = rate <= 0 ? 0 : (long) (NANOS_PER_SECOND / rate);
+            burstNanos[requestClass.ordinal()] = intervalNanos[requestClass.ordinal()] * Math.max(1, bursts.get(requestClass));
+        }
+        this.maxClients = maxClients;
+        final long now = System.nanoTime();
+        this.overflow = newBucket(now);
+        this.nextSweep = new AtomicLong(now);
+    }
+
+    /**
+     * Takes the tokens of the class from the bucket of the client, returns 0 if they were taken,
+     * otherwise the nanoseconds until the next one is available. The tokens are taken once the bucket has one,
+     * the ones it lacks are owed, so a request costing more than the burst is not rejected for good,
+     * and the requests after it wait until the bucket is paid back.
+     */
+    public long tryAcquire(final String client, final RequestClass requestClass, final int tokens, final long now) {
+        final int index = requestClass.ordinal();
+        if (intervalNanos[index] == 0) {
+            return 0;
+        }
+        final AtomicLongArray bucket = getBucket(client, now);
+        while (true) {
+            final long fullAt = bucket.get(index);
+            final long pendingFullAt = Math.max(fullAt - now, 0) + now;
+            final long excess = pendingFullAt + intervalNanos[index] - now - burstNanos[index];
+            if (excess > 0) {
+                return excess;
+            }
+            final long nextFullAt = pendingFullAt + intervalNanos[index] * tokens;
+            if (bucket.compareAndSet(index, fullAt, nextFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLongArray getBucket(final String client, final long now) {
+        final AtomicLongArray bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            sweep(now);
+            if (buckets.size() >= maxClients) {
+                return overflow;
+            }
+        }
+        return buckets.computeIfAbsent(client, c -> newBucket(now));
+    }
+
+    /**
+     * Removes the buckets which are full again, a client taking a token while its bucket is removed gets it for free
+     */
+    private void sweep(final long now) {
+        final long sweepAt = nextSweep.get();
+        if (now - sweepAt >= 0 && nextSweep.compareAndSet(sweepAt, now + SWEEP_INTERVAL_NANOS)) {
+            buckets.values().removeIf(bucket -> isFull(bucket, now));
+        }
+    }
+
+    private static boolean isFull(final AtomicLongArray bucket, final long now) {
+        for (int index = 0; index < bucket.length(); index++) {
+            if (bucket.get(index) - now > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static AtomicLongArray newBucket(final long now) {
+        final AtomicLongArray bucket = new AtomicLongArray(RequestClass.values().length);
+        for (int index = 0; index < bucket.length(); index++) {
+            bucket.set(index, now);
+        }
+        return bucket;
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.simple.booking.service.throttling;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * The classes of the API requests limited separately, with the default rate and burst of a client.
+ * The free timeslot queries compute many days, so they get a lower rate than the other lookups.
+ */
+public enum RequestClass {
+    BOOKING("booking", 10, 20),
+    FREE_SLOTS("free-slots", 2, 5),
+    LOOKUP("lookup", 50, 100);
+
+    private static final String BOOK_PATH = "/v1/book";
+    private static final String FREE_PATH = "/v1/free";
+
+    final String propertyName;
+    final double defaultRequestsPerSecond;
+    final int defaultBurst;
+
+    RequestClass(final String propertyName, final double defaultRequestsPerSecond, final int defaultBurst) {
+        this.propertyName = propertyName;
+        this.defaultRequestsPerSecond = defaultRequestsPerSecond;
+        this.defaultBurst = defaultBurst;
+    }
+
+    /**
+     * The class of a request by its method and its path within the context
+     */
+    public static RequestClass of(final String method, final String path) {
+        if (HttpMethod.GET.matches(method)) {
+            return path.startsWith(FREE_PATH) ? FREE_SLOTS : LOOKUP;
+        }
+        return path.startsWith(BOOK_PATH) ? BOOKING : LOOKUP;
+    }
+
+}
@@ -0,0 +1,209 @@
+package org.simple.booking.service.throttling;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.simple.booking.service.cluster.CachedBodyRequest;
+import org.simple.booking.service.cluster.ClusterRoutingFilter;
+import org.simple.booking.service.cluster.ClusterTopology;
+import org.simple.booking.service.domain.RejectionReason;
+import org.simple.booking.service.service.metrics.BookingMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.simple.booking.service.domain.Constants.CLIENT_ID;
+
+/**
+ * Rejects the API requests of a client above the rate of their class with 429, then sheds the requests
+ * waiting too long for a free slot of the service with 503, both before the request reaches the cluster routing
+ * or the controller. A client is identified by its address, the client id header only tells apart the clients
+ * behind a trusted proxy, otherwise a client could get a fresh bucket with every id. A batch costs a booking token
+ * for every booking of it.
+ * The requests forwarded by another node of the cluster were already limited there, only the shedding applies to them,
+ * a request is taken as forwarded only in the cluster mode and only from the address of a node.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnExpression("${booking.rate-limit.enabled:false} or ${booking.load-shedding.enabled:false}")
+public class ThrottlingFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH = "/v1/";
+    private static final String BATCH_PATH = "/v1/book/batch";
+    private static final String RATE_LIMIT = "booking.rate-limit.";
+    private static final String CLIENT_SEPARATOR = "/";
+
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private BookingMetrics bookingMetrics;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired(required = false)
+    private ClusterTopology clusterTopology;
+
+    @Value("${booking.rate-limit.enabled:false}")
+    private boolean rateLimitEnabled;
+    @Value("${booking.rate-limit.max-clients:10000}")
+    private int maxClients;
+    @Value("${booking.rate-limit.trusted-proxies:}")
+    private Set<String> trustedProxies;
+    @Value("${booking.load-shedding.enabled:false}")
+    private boolean loadSheddingEnabled;
+    @Value("${booking.load-shedding.max-concurrent-requests:64}")
+    private int maxConcurrentRequests;
+    @Value("${booking.load-shedding.max-queue-millis:200}")
+    private long maxQueueMillis;
+
+    private RateLimiter rateLimiter;
+    private LoadShedder loadShedder;
+
+    @PostConstruct
+    private void init() {
+        if (rateLimitEnabled) {
+            final Map<RequestClass, Double> requestsPerSecond = new EnumMap<>(RequestClass.class);
+            final Map<RequestClass, Integer> bursts = new EnumMap<>(RequestClass.class);
+            for (final RequestClass requestClass : RequestClass.values()) {
+                requestsPerSecond.put(requestClass, environment.getProperty(RATE_LIMIT + requestClass.propertyName + ".requests-per-second",
+                                                                            Double.class, requestClass.defaultRequestsPerSecond));
+                bursts.put(requestClass, environment.getProperty(RATE_LIMIT + requestClass.propertyName + ".burst",
+                                                                 Integer.class, requestClass.defaultBurst));
+            }
+            rateLimiter = new RateLimiter(requestsPerSecond, bursts, maxClients);
+            bookingMetrics.bindRateLimiter(rateLimiter);
+            log.info("Rate limiting the clients at {} requests per second with bursts of {}", requestsPerSecond, bursts);
+        }
+        if (loadSheddingEnabled) {
+            loadShedder = new LoadShedder(maxConcurrentRequests, maxQueueMillis);
+            bookingMetrics.bindLoadShedder(loadShedder);
+            log.info("Shedding the requests waiting over {} ms for one of {} slots", maxQueueMillis, maxConcurrentRequests);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !getPath(request).startsWith(API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpServletRequest limitedRequest = request;
+        if (rateLimiter != null && !isForwarded(request)) {
+            final String path = getPath(request);
+            int tokens = 1;
+            if (HttpMethod.POST.matches(request.getMethod()) && BATCH_PATH.equals(path)) {
+                final byte[] body = request.getInputStream().readAllBytes();
+                limitedRequest = new CachedBodyRequest(request, body);
+                tokens = countBookings(body);
+            }
+            final long waitNanos = rateLimiter.tryAcquire(getClient(request), RequestClass.of(request.getMethod(), path), tokens,
+                                                          System.nanoTime());
+            if (waitNanos > 0) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, RejectionReason.RATE_LIMIT_EXCEEDED, waitNanos);
+                return;
+            }
+        }
+        if (loadShedder == null) {
+            filterChain.doFilter(limitedRequest, response);
+            return;
+        }
+        if (!acquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, RejectionReason.SERVICE_OVERLOADED, TimeUnit.MILLISECONDS.toNanos(maxQueueMillis));
+            return;
+        }
+        try {
+            filterChain.doFilter(limitedRequest, response);
+        } finally {
+            loadShedder.release();
+        }
+    }
+
+    /**
+     * Whether another node of the cluster forwarded the request, the header alone can be sent by any client
+     */
+    private boolean isForwarded(final HttpServletRequest request) {
+        return clusterTopology != null && request.getHeader(ClusterRoutingFilter.FORWARDED_BY) != null
+                && clusterTopology.isNodeAddress(request.getRemoteAddr());
+    }
+
+    /**
+     * Counts the bookings of the batch without binding them, a body which is not an array costs one token
+     * and is rejected by the controller
+     */
+    private int countBookings(final byte[] body) {
+        int count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return 1;
+            }
+            for (JsonToken token = parser.nextToken(); token != null && token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                parser.skipChildren();
+                count++;
+            }
+        } catch (final IOException exception) {
+            // Not a valid request, the bookings read so far are charged
+        }
+        return Math.max(1, count);
+    }
+
+    private boolean acquire() {
+        try {
+            return loadShedder.tryAcquire();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Answers with the message of the reason and the seconds to wait before retrying, at least one
+     */
+    private void reject(final HttpServletResponse response, final HttpStatus status, final RejectionReason reason, final long waitNanos)
+            throws IOException {
+        bookingMetrics.rejected(reason);
+        final long retryAfterSeconds = Math.max(1, -Math.floorDiv(-waitNanos, TimeUnit.SECONDS.toNanos(1)));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(reason.getMessage(retryAfterSeconds));
+    }
+
+    /**
+     * The address of the client, narrowed by its client id header if it is sent by a trusted proxy
+     */
+    private String getClient(final HttpServletRequest request) {
+        final String client = request.getHeader(CLIENT_ID);
+        return client == null || client.isBlank() || !trustedProxies.contains(request.getRemoteAddr())
+               ? request.getRemoteAddr() : request.getRemoteAddr() + CLIENT_SEPARATOR + client;
+    }
+
+    private static String getPath(final HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+}
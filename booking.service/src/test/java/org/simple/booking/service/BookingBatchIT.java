@@ -0,0 +1,98 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.BookingBatchResult;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-03-20", "bookable.frame.end=2023-03-24"})
+public class BookingBatchIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String BATCH_URL = "/book/batch";
+    private static final String CLIENT_URL = "/client/";
+    private static final LocalDateTime START_03_20_10_00 = LocalDateTime.of(2023, 3, 20, 10, 0, 0);
+    private static final LocalDateTime START_03_21_10_00 = LocalDateTime.of(2023, 3, 21, 10, 0, 0);
+    private static final LocalDateTime START_03_22_10_00 = LocalDateTime.of(2023, 3, 22, 10, 0, 0);
+
+    @Test
+    public void atomicBatchIsRejectedAsAWhole() {
+        restTemplate.postForEntity(getURL() + BOOK_URL, getBooking("atomic-existing", START_03_20_10_00, START_03_20_10_00.plusMinutes(60)), Booking.class);
+        final List<Booking> batch = List.of(getBooking("atomic", START_03_20_10_00.plusMinutes(30), START_03_20_10_00.plusMinutes(90)),
+                                            getBooking("atomic", START_03_20_10_00.plusMinutes(120), START_03_20_10_00.plusMinutes(150)));
+
+        final ResponseEntity<BookingBatchResult> response = restTemplate.postForEntity(getURL() + BATCH_URL, batch, BookingBatchResult.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(0, response.getBody().getCommitted());
+        assertEquals(1, response.getBody().getRejected());
+        assertEquals("Invalid request, the passed timeslot overlaps with a booked one: 2023-03-20T10:30 end: 2023-03-20T11:30",
+                     response.getBody().getItems().get(0).getErrors().get(0));
+        assertNull(response.getBody().getItems().get(1).getErrors());
+        assertTrue(getBookingsOfClient("atomic").isEmpty());
+    }
+
+    @Test
+    public void partialBatchCommitsTheValidBookings() {
+        final List<Booking> batch = List.of(getBooking("partial", START_03_21_10_00, START_03_21_10_00.plusMinutes(60)),
+                                            getBooking("partial", START_03_21_10_00.plusMinutes(30), START_03_21_10_00.plusMinutes(60)),
+                                            getBooking("partial", START_03_21_10_00.plusMinutes(5), START_03_21_10_00.plusMinutes(35)),
+                                            getBooking("partial", START_03_21_10_00.plusMinutes(60), START_03_21_10_00.plusMinutes(90)));
+
+        final ResponseEntity<BookingBatchResult> response = restTemplate.postForEntity(getURL() + BATCH_URL + "?atomic=false", batch, BookingBatchResult.class);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(2, response.getBody().getCommitted());
+        assertEquals(2, response.getBody().getRejected());
+        assertNotNull(response.getBody().getItems().get(0).getBooking().getId());
+        assertEquals("Invalid request, the passed timeslot overlaps with another booking of the batch: 2023-03-21T10:30 end: 2023-03-21T11:00",
+                     response.getBody().getItems().get(1).getErrors().get(0));
+        assertEquals("Invalid booking, booked timeslot can only start from :00 or :30.",
+                     response.getBody().getItems().get(2).getErrors().get(0));
+        assertNotNull(response.getBody().getItems().get(3).getBooking().getId());
+        assertEquals(2, getBookingsOfClient("partial").size());
+    }
+
+    @Test
+    public void atomicBatchIsCommittedAcrossResources() {
+        final List<Booking> batch = List.of(getBooking("resources", START_03_22_10_00, START_03_22_10_00.plusMinutes(60)),
+                                            Booking.builder()
+                                                   .client("resources")
+                                                   .start(START_03_22_10_00)
+                                                   .end(START_03_22_10_00.plusMinutes(60))
+                                                   .resource("room-1")
+                                                   .build());
+
+        final ResponseEntity<BookingBatchResult> response = restTemplate.postForEntity(getURL() + BATCH_URL, batch, BookingBatchResult.class);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(2, response.getBody().getCommitted());
+        assertEquals("room-1", response.getBody().getItems().get(1).getBooking().getResource());
+        assertEquals(1, getBookingsOfClient("resources").size());
+    }
+
+    private List<Booking> getBookingsOfClient(final String client) {
+        return restTemplate.exchange(getURL() + CLIENT_URL + client, HttpMethod.GET, null,
+                                     new ParameterizedTypeReference<List<Booking>>() {}).getBody();
+    }
+
+    private Booking getBooking(final String client, final LocalDateTime start, final LocalDateTime end) {
+        return Booking.builder()
+                      .client(client)
+                      .start(start)
+                      .end(end)
+                      .build();
+    }
+}
@@ -0,0 +1,89 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.BookingBatchResult;
+import org.simple.booking.service.service.persistence.BookingPersistenceService;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * The log records of the bookings of the client "unlogged" cannot be written
+ */
+@TestPropertySource(properties = {"bookable.frame.start=2023-07-10", "bookable.frame.end=2023-07-11"})
+public class BookingBatchLogFailureIT extends AbstractBookingServiceIT {
+
+    private static final String BATCH_URL = "/book/batch";
+    private static final String CLIENT_URL = "/client/";
+    private static final String UNLOGGED = "unlogged";
+    private static final LocalDateTime START_07_10_10_00 = LocalDateTime.of(2023, 7, 10, 10, 0, 0);
+    private static final LocalDateTime START_07_11_10_00 = LocalDateTime.of(2023, 7, 11, 10, 0, 0);
+
+    @SpyBean
+    private BookingPersistenceService bookingPersistenceService;
+
+    @BeforeEach
+    public void failUnloggedClient() {
+        doAnswer(invocation -> UNLOGGED.equals(invocation.<Booking>getArgument(1).getClient())
+                               ? CompletableFuture.failedFuture(new IOException("disk full"))
+                               : invocation.callRealMethod())
+                .when(bookingPersistenceService).log(any(), any());
+    }
+
+    @Test
+    public void atomicBatchIsUndoneAsAWholeIfARecordFails() {
+        final List<Booking> batch = List.of(getBooking("atomic-logged", START_07_10_10_00),
+                                            getBooking(UNLOGGED, START_07_10_10_00.plusHours(2)));
+
+        final ResponseEntity<String> response = restTemplate.postForEntity(getURL() + BATCH_URL, batch, String.class);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals(0, getBookingsOfClient("atomic-logged").length);
+        assertEquals(0, getBookingsOfClient(UNLOGGED).length);
+    }
+
+    @Test
+    public void partialBatchReportsTheFailedRecords() {
+        final List<Booking> batch = List.of(getBooking("partial-logged", START_07_11_10_00),
+                                            getBooking(UNLOGGED, START_07_11_10_00.plusHours(2)));
+
+        final ResponseEntity<BookingBatchResult> response = restTemplate.postForEntity(getURL() + BATCH_URL + "?atomic=false", batch,
+                                                                                       BookingBatchResult.class);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, response.getBody().getCommitted());
+        assertEquals(1, response.getBody().getRejected());
+        assertNotNull(response.getBody().getItems().get(0).getBooking().getId());
+        assertNull(response.getBody().getItems().get(1).getBooking().getId());
+        assertEquals(List.of("Failed request, the booking could not be persisted: disk full"), response.getBody().getItems().get(1).getErrors());
+        assertEquals(1, getBookingsOfClient("partial-logged").length);
+        assertEquals(0, getBookingsOfClient(UNLOGGED).length);
+    }
+
+    private Booking[] getBookingsOfClient(final String client) {
+        return restTemplate.getForObject(getURL() + CLIENT_URL + client, Booking[].class);
+    }
+
+    private static Booking getBooking(final String client, final LocalDateTime start) {
+        return Booking.builder()
+                      .client(client)
+                      .start(start)
+                      .end(start.plusMinutes(60))
+                      .build();
+    }
+
+}
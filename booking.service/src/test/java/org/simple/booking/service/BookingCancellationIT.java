@@ -0,0 +1,102 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-04-03", "bookable.frame.end=2023-04-05"})
+public class BookingCancellationIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String CLIENT_URL = "/client/";
+    private static final String FREE_TIMEFRAME_URL = "/free/timeframe?start={start}&end={end}";
+    private static final LocalDateTime START_04_03_10_00 = LocalDateTime.of(2023, 4, 3, 10, 0, 0);
+    private static final LocalDateTime START_04_04_10_00 = LocalDateTime.of(2023, 4, 4, 10, 0, 0);
+    private static final LocalDateTime START_04_05_10_00 = LocalDateTime.of(2023, 4, 5, 10, 0, 0);
+
+    @Test
+    public void cancelledBookingFreesItsTimeSlot() {
+        final Booking booking = book("cancel", START_04_03_10_00, START_04_03_10_00.plusMinutes(60));
+        assertFalse(getFreeTimeSlots("2023-04-03 09:00", "2023-04-03 12:00").contains("\"start\":\"2023-04-03 10:00\""));
+
+        final ResponseEntity<Booking> response = restTemplate.exchange(getURL() + BOOK_URL + "/" + booking.getId(), HttpMethod.DELETE, null, Booking.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(booking.getId(), response.getBody().getId());
+        assertTrue(getFreeTimeSlots("2023-04-03 09:00", "2023-04-03 12:00").contains("\"start\":\"2023-04-03 10:00\""));
+        assertEquals(0, getBookingsOfClient("cancel").length);
+
+        final ResponseEntity<String> cancelledAgain = restTemplate.exchange(getURL() + BOOK_URL + "/" + booking.getId(), HttpMethod.DELETE, null, String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, cancelledAgain.getStatusCode());
+        assertEquals("No booked timeslot found for the provided data: " + booking.getId(), cancelledAgain.getBody());
+    }
+
+    @Test
+    public void rescheduledBookingCanOverlapItself() throws IOException, InterruptedException {
+        final Booking booking = book("reschedule", START_04_04_10_00, START_04_04_10_00.plusMinutes(60));
+
+        final HttpResponse<String> response = patch(BOOK_URL + "/" + booking.getId() + "?start=2023-04-04%2010:30&end=2023-04-04%2011:30");
+
+        assertEquals(HttpStatus.OK.value(), response.statusCode());
+        final Booking[] bookings = getBookingsOfClient("reschedule");
+        assertEquals(1, bookings.length);
+        assertEquals(booking.getId(), bookings[0].getId());
+        assertEquals(START_04_04_10_00.plusMinutes(30), bookings[0].getStart());
+        assertTrue(getFreeTimeSlots("2023-04-04 09:00", "2023-04-04 12:00").contains("\"start\":\"2023-04-04 10:00\""));
+    }
+
+    @Test
+    public void rescheduleOntoAnotherBookingIsRejected() throws IOException, InterruptedException {
+        final Booking booking = book("reschedule-overlap", START_04_05_10_00, START_04_05_10_00.plusMinutes(60));
+        book("reschedule-overlap", START_04_05_10_00.plusMinutes(120), START_04_05_10_00.plusMinutes(180));
+
+        final HttpResponse<String> response = patch(BOOK_URL + "/" + booking.getId() + "?start=2023-04-05%2011:30&end=2023-04-05%2012:30");
+
+        assertEquals(HttpStatus.BAD_REQUEST.value(), response.statusCode());
+        assertEquals("Invalid request, the passed timeslot overlaps with a booked one: 2023-04-05T12:00 end: 2023-04-05T13:00", response.body());
+        assertEquals(START_04_05_10_00, getBookingsOfClient("reschedule-overlap")[0].getStart());
+    }
+
+    private Booking book(final String client, final LocalDateTime start, final LocalDateTime end) {
+        final ResponseEntity<Booking> response = restTemplate.postForEntity(getURL() + BOOK_URL, Booking.builder()
+                                                                                                       .client(client)
+                                                                                                       .start(start)
+                                                                                                       .end(end)
+                                                                                                       .build(), Booking.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody();
+    }
+
+    /**
+     * The default request factory of the TestRestTemplate cannot send PATCH requests
+     */
+    private HttpResponse<String> patch(final String path) throws IOException, InterruptedException {
+        return HttpClient.newHttpClient()
+                         .send(HttpRequest.newBuilder(URI.create(getURL() + path))
+                                          .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                                          .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String getFreeTimeSlots(final String start, final String end) {
+        return restTemplate.getForObject(getURL() + FREE_TIMEFRAME_URL, String.class, start, end);
+    }
+
+    private Booking[] getBookingsOfClient(final String client) {
+        return restTemplate.getForObject(getURL() + CLIENT_URL + client, Booking[].class);
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-03-13", "bookable.frame.end=2023-03-17"})
+public class BookingConcurrencyIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String BOOKED_URL = "/booked";
+    private static final int THREADS = 16;
+    private static final LocalDateTime START_03_14_10_00 = LocalDateTime.of(2023, 3, 14, 10, 0, 0);
+
+    @Test
+    public void sameTimeSlotIsBookedOnlyOnce() throws Exception {
+        final List<Callable<HttpStatusCode>> requests = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            final Booking booking = getBooking("client-" + i, START_03_14_10_00, START_03_14_10_00.plusMinutes(60));
+            requests.add(() -> restTemplate.postForEntity(getURL() + BOOK_URL, booking, String.class).getStatusCode());
+        }
+
+        final List<HttpStatusCode> statuses = executeConcurrently(requests);
+
+        assertEquals(1, Collections.frequency(statuses, HttpStatus.CREATED));
+        assertEquals(statuses.size() - 1, Collections.frequency(statuses, HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    public void overlappingBookingsAcrossDaysAreNeverDoubleBooked() throws Exception {
+        final List<Callable<HttpStatusCode>> requests = new ArrayList<>();
+        for (int round = 0; round < 4; round++) {
+            for (int day = 15; day <= 17; day++) {
+                for (int slot = 0; slot < 16; slot++) {
+                    final LocalDateTime start = LocalDateTime.of(2023, 3, day, 9, 0).plusMinutes(30L * slot);
+                    final Booking booking = getBooking("client-" + round, start, start.plusMinutes(30L * (1 + (slot + round) % 3)));
+                    requests.add(() -> restTemplate.postForEntity(getURL() + BOOK_URL, booking, String.class).getStatusCode());
+                }
+            }
+        }
+        Collections.shuffle(requests);
+
+        final List<HttpStatusCode> statuses = executeConcurrently(requests);
+        final List<Booking> booked = restTemplate.exchange(getURL() + BOOKED_URL, HttpMethod.GET, null,
+                                                           new ParameterizedTypeReference<List<Booking>>() {}).getBody();
+
+        assertEquals(Collections.frequency(statuses, HttpStatus.CREATED),
+                     booked.stream().filter(booking -> booking.getStart().getDayOfMonth() >= 15).count());
+        for (int i = 1; i < booked.size(); i++) {
+            assertTrue(!booked.get(i).getStart().isBefore(booked.get(i - 1).getEnd()),
+                       "Double booking: " + booked.get(i - 1) + " and " + booked.get(i));
+        }
+    }
+
+    private <T> List<T> executeConcurrently(final List<Callable<T>> requests) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            final List<Future<T>> futures = new ArrayList<>();
+            for (final Callable<T> request : requests) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return request.call();
+                }));
+            }
+            startGate.countDown();
+
+            final List<T> results = new ArrayList<>();
+            for (final Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Booking getBooking(final String client, final LocalDateTime start, final LocalDateTime end) {
+        return Booking.builder()
+                      .client(client)
+                      .start(start)
+                      .end(end)
+                      .build();
+    }
+}
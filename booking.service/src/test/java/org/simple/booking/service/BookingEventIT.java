@@ -0,0 +1,105 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.event.BookingEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-04-17", "bookable.frame.end=2023-04-19", "booking.events.buffer-size=4"})
+public class BookingEventIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String EVENTS_URL = "/events?resource=";
+    private static final LocalDateTime START_04_17_10_00 = LocalDateTime.of(2023, 4, 17, 10, 0, 0);
+    private static final LocalDateTime START_04_18_09_00 = LocalDateTime.of(2023, 4, 18, 9, 0, 0);
+    private static final LocalDateTime START_04_19_09_00 = LocalDateTime.of(2023, 4, 19, 9, 0, 0);
+
+    @Autowired
+    private BookingEventService bookingEventService;
+
+    @Test
+    public void subscriberReceivesTheNextChanges() throws IOException, InterruptedException {
+        final HttpResponse<Stream<String>> stream = subscribe(EVENTS_URL + "events");
+        final Booking booking = book("events", START_04_17_10_00);
+
+        final List<String> event = getEventLines(stream).limit(3).toList();
+        stream.body().close();
+
+        assertTrue(event.get(0).matches("id:\\d+-\\d+"));
+        assertEquals("event:booked", event.get(1));
+        assertTrue(event.get(2).contains("\"id\":\"" + booking.getId() + "\""));
+    }
+
+    @Test
+    public void lappedSubscriberHasToResync() throws IOException, InterruptedException {
+        for (int i = 0; i < 6; i++) {
+            book("events-resync", START_04_18_09_00.plusMinutes(30L * i));
+        }
+
+        // The buffer keeps 4 events, the first ones are overwritten
+        final HttpResponse<Stream<String>> stream = subscribe(EVENTS_URL + "events-resync&after=" + bookingEventService.getEventId(0));
+        final List<String> event = getEventLines(stream).limit(2).toList();
+        stream.body().close();
+
+        assertEquals("event:resync", event.get(0));
+        assertEquals("data:" + bookingEventService.getEventId(bookingEventService.getLastSequence()), event.get(1));
+    }
+
+    @Test
+    public void subscriberResumingAfterAPreviousStartHasToResync() throws IOException, InterruptedException {
+        book("events-restart", START_04_19_09_00);
+        final String lastEventId = bookingEventService.getEventId(bookingEventService.getLastSequence());
+
+        // The sequence number is still in the buffer, but it was numbered by another start of the service
+        final HttpResponse<Stream<String>> stream = subscribe(EVENTS_URL + "events-restart&after=1-" + (bookingEventService.getLastSequence() - 1));
+        final List<String> event = getEventLines(stream).limit(2).toList();
+        stream.body().close();
+
+        assertEquals("event:resync", event.get(0));
+        assertEquals("data:" + lastEventId, event.get(1));
+    }
+
+    private HttpResponse<Stream<String>> subscribe(final String path) throws IOException, InterruptedException {
+        final HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                                                                .send(HttpRequest.newBuilder(URI.create(getURL() + path))
+                                                                                 .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                                                                                 .build(), HttpResponse.BodyHandlers.ofLines());
+        assertEquals(HttpStatus.OK.value(), response.statusCode());
+        return response;
+    }
+
+    /**
+     * Skips the comments and the blank lines between the events
+     */
+    private static Stream<String> getEventLines(final HttpResponse<Stream<String>> stream) {
+        return stream.body().filter(line -> !line.isEmpty() && !line.startsWith(":"));
+    }
+
+    private Booking book(final String resource, final LocalDateTime start) {
+        final ResponseEntity<Booking> response = restTemplate.postForEntity(getURL() + BOOK_URL, Booking.builder()
+                                                                                                       .client("events")
+                                                                                                       .resource(resource)
+                                                                                                       .start(start)
+                                                                                                       .end(start.plusMinutes(30))
+                                                                                                       .build(), Booking.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody();
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The test context disables the export of the metrics unless it is asked for
+ */
+@AutoConfigureObservability
+@TestPropertySource(properties = {"bookable.frame.start=2023-07-17", "bookable.frame.end=2023-07-18",
+                                  "bookable.resources.room-m.workday.start=09:00"})
+public class BookingMetricsIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String PROMETHEUS_URL = "http://localhost:{port}/booking-backend-service/actuator/prometheus";
+    private static final LocalDateTime START_07_17_10_00 = LocalDateTime.of(2023, 7, 17, 10, 0, 0);
+
+    @Test
+    public void bookingMetricsAreExported() {
+        assertEquals(HttpStatus.CREATED, book("room-m", START_07_17_10_00));
+        assertEquals(HttpStatus.BAD_REQUEST, book("room-m", START_07_17_10_00.plusMinutes(30)));
+        assertEquals(HttpStatus.CREATED, book("adhoc-m", START_07_17_10_00));
+
+        final List<String> lines = Arrays.asList(restTemplate.getForObject(PROMETHEUS_URL, String.class, port).split("\n"));
+
+        assertEquals(2, getValue(lines, "booking_service_operation_seconds_count", "operation=\"registerBooking\""));
+        assertTrue(getValue(lines, "booking_validation_step_seconds_count", "step=\"checkCalendarRules\"") >= 3);
+        assertTrue(getValue(lines, "booking_validation_step_seconds_count", "step=\"checkOverLap\"") >= 3);
+        assertEquals(1, getValue(lines, "booking_rejections_total", "reason=\"OVERLAPPING_BOOKING\""));
+        assertEquals(0, getValue(lines, "booking_rejections_total", "reason=\"BOOKING_ON_WEEKEND\""));
+        // The store of a configured resource is tagged by its name, the others are summed up
+        assertEquals(1, getValue(lines, "booking_store_size", "resource=\"room-m\""));
+        assertEquals(1, getValue(lines, "booking_store_size", "resource=\"other\""));
+        assertEquals(1, getValue(lines, "booking_store_bookings_per_day", "resource=\"room-m\""));
+        assertFalse(lines.stream().anyMatch(line -> line.contains("resource=\"adhoc-m\"")));
+    }
+
+    private HttpStatus book(final String resource, final LocalDateTime start) {
+        return HttpStatus.valueOf(restTemplate.postForEntity(getURL() + BOOK_URL, Booking.builder()
+                                                                                         .client("metrics")
+                                                                                         .resource(resource)
+                                                                                         .start(start)
+                                                                                         .end(start.plusMinutes(60))
+                                                                                         .build(), String.class)
+                                              .getStatusCode()
+                                              .value());
+    }
+
+    /**
+     * The value of the sample of the meter with the tag
+     */
+    private static double getValue(final List<String> lines, final String name, final String tag) {
+        return lines.stream()
+                    .filter(line -> line.startsWith(name + "{") && line.contains(tag))
+                    .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("No sample of " + name + " with " + tag));
+    }
+
+}
@@ -0,0 +1,117 @@
+package org.simple.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.domain.BookingTimeFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-06-26", "bookable.frame.end=2023-06-27"})
+public class BookingPagingIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String BOOKED_URL = "/booked";
+    private static final String FREE_URL = "/free";
+    private static final LocalDateTime START_06_26_10_00 = LocalDateTime.of(2023, 6, 26, 10, 0, 0);
+    private static final LocalDateTime START_06_27_10_00 = LocalDateTime.of(2023, 6, 27, 10, 0, 0);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void timeSlotsArePagedWithTheCursor() {
+        book(START_06_26_10_00);
+        book(START_06_26_10_00.plusHours(2));
+        book(START_06_27_10_00);
+        book(START_06_27_10_00.plusHours(3));
+        book(START_06_27_10_00.plusHours(5));
+
+        for (final String url : List.of(BOOKED_URL, FREE_URL)) {
+            final List<Booking> all = get(url);
+            assertTrue(all.size() > 3);
+            assertEquals(getStarts(all), getStarts(getPages(url, 2)));
+            assertEquals(getStarts(all.subList(0, 3)), getStarts(get(url + "?limit=3")));
+            assertEquals(getStarts(all.subList(2, all.size())), getStarts(get(url + "?after=" + format(all.get(1).getStart()))));
+
+            final ResponseEntity<String> response = restTemplate.getForEntity(getURL() + url + "?limit=0", String.class);
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        }
+    }
+
+    @Test
+    public void timeSlotsAreStreamedAsJsonLines() throws IOException {
+        book(START_06_26_10_00.plusHours(5));
+
+        for (final String url : List.of(BOOKED_URL, FREE_URL)) {
+            final List<Booking> all = get(url);
+            assertEquals(getStarts(all), getStarts(getLines(url)));
+            assertEquals(getStarts(all.subList(1, all.size())), getStarts(getLines(url + "?after=" + format(all.get(0).getStart()))));
+        }
+    }
+
+    private void book(final LocalDateTime start) {
+        final ResponseEntity<Booking> response = restTemplate.postForEntity(getURL() + BOOK_URL, Booking.builder()
+                                                                                                       .client("paging")
+                                                                                                       .start(start)
+                                                                                                       .end(start.plusMinutes(60))
+                                                                                                       .build(), Booking.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
+    private List<Booking> get(final String path) {
+        return Arrays.asList(restTemplate.getForObject(getURL() + path, Booking[].class));
+    }
+
+    /**
+     * Reads every page, passing the start of the last timeslot of a page as the cursor of the next one
+     */
+    private List<Booking> getPages(final String path, final int limit) {
+        final List<Booking> bookings = new ArrayList<>();
+        for (List<Booking> page = get(path + "?limit=" + limit); !page.isEmpty();
+             page = get(path + "?limit=" + limit + "&after=" + format(page.get(page.size() - 1).getStart()))) {
+            assertTrue(page.size() <= limit);
+            bookings.addAll(page);
+        }
+        return bookings;
+    }
+
+    private List<Booking> getLines(final String path) throws IOException {
+        final HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+        final ResponseEntity<String> response = restTemplate.exchange(getURL() + path, HttpMethod.GET, new HttpEntity<>(requestHeaders), String.class);
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+
+        final List<Booking> bookings = new ArrayList<>();
+        for (final String line : response.getBody().split("\n")) {
+            bookings.add(objectMapper.readValue(line, Booking.class));
+        }
+        return bookings;
+    }
+
+    private static List<LocalDateTime> getStarts(final List<Booking> bookings) {
+        return bookings.stream()
+                       .map(Booking::getStart)
+                       .toList();
+    }
+
+    private static String format(final LocalDateTime time) {
+        return BookingTimeFormat.FORMATTER.format(time);
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-06-12", "bookable.frame.end=2023-06-13",
+                                  "booking.persistence.enabled=true", "booking.persistence.directory=target/persistence-it/${random.uuid}"})
+public class BookingPersistenceIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String FREE_TIMEFRAME_URL = "/free/timeframe?start={start}&end={end}";
+    private static final LocalDateTime START_06_12_10_00 = LocalDateTime.of(2023, 6, 12, 10, 0, 0);
+
+    @Test
+    public void bookingTooLongToBeLoggedIsRejected() {
+        final ResponseEntity<String> response = restTemplate.postForEntity(getURL() + BOOK_URL, Booking.builder()
+                                                                                                        .client("€".repeat(11000))
+                                                                                                        .start(START_06_12_10_00)
+                                                                                                        .end(START_06_12_10_00.plusMinutes(60))
+                                                                                                        .build(), String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid request, the client and the resource can be at most this many bytes long in UTF-8: 32767", response.getBody());
+        assertTrue(restTemplate.getForObject(getURL() + FREE_TIMEFRAME_URL, String.class, "2023-06-12 09:00", "2023-06-12 12:00")
+                               .contains("\"start\":\"2023-06-12 10:00\""));
+    }
+
+    @Test
+    public void loggedBookingIsRegistered() {
+        final ResponseEntity<Booking> response = restTemplate.postForEntity(getURL() + BOOK_URL, Booking.builder()
+                                                                                                         .client("persisted")
+                                                                                                         .start(START_06_12_10_00.plusDays(1))
+                                                                                                         .end(START_06_12_10_00.plusDays(1).plusMinutes(60))
+                                                                                                         .build(), Booking.class);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("persisted", response.getBody().getClient());
+    }
+
+}
@@ -0,0 +1,216 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.TimeSlotService;
+import org.simple.booking.service.service.persistence.BookingPersistenceService;
+import org.simple.booking.service.service.store.ResourceCalendar;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restarts the service on the same persistence directory, so the service is started here
+ * instead of by the Spring test context
+ */
+public class BookingRecoveryIT {
+
+    private static final String BOOKING_BACKEND = "/booking-backend-service/v1";
+    private static final String ROOM_A = "room-a";
+    private static final String ROOM_B = "room-b";
+    private static final LocalDateTime START_07_03_10_00 = LocalDateTime.of(2023, 7, 3, 10, 0, 0);
+
+    private final TestRestTemplate restTemplate = new TestRestTemplate();
+    private Path directory;
+    private ConfigurableApplicationContext service;
+    private String url;
+
+    @BeforeEach
+    public void startService() throws IOException {
+        directory = Path.of("target", "recovery-it", UUID.randomUUID().toString());
+        start();
+    }
+
+    @AfterEach
+    public void stopService() {
+        service.close();
+    }
+
+    @Test
+    public void bookingsAreRestoredFromTheLog() throws IOException, InterruptedException {
+        final Booking kept = book(START_07_03_10_00);
+        final Booking cancelled = book(START_07_03_10_00.plusHours(2));
+        final Booking moved = book(START_07_03_10_00.plusHours(4));
+        assertEquals(HttpStatus.OK, restTemplate.exchange(url + "/book/" + cancelled.getId(), HttpMethod.DELETE, null, Booking.class)
+                                                .getStatusCode());
+        assertEquals(HttpStatus.OK.value(), patch("/book/" + moved.getId() + "?start=2023-07-04%2010:00&end=2023-07-04%2011:00"));
+
+        restart();
+
+        assertEquals(List.of(kept.getId() + " " + START_07_03_10_00, moved.getId() + " " + START_07_03_10_00.plusDays(1)), getBooked());
+        // The restored bookings are taken
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.postForEntity(url + "/book", getBooking(START_07_03_10_00), String.class)
+                                                         .getStatusCode());
+        assertEquals(HttpStatus.CREATED, restTemplate.postForEntity(url + "/book", getBooking(START_07_03_10_00.plusHours(2)), String.class)
+                                                     .getStatusCode());
+    }
+
+    @Test
+    public void bookingsBeforeATornRecordAreRestored() throws IOException {
+        final Booking kept = book(START_07_03_10_00);
+        service.close();
+        // A crash in the middle of a write leaves the header of a record without its payload
+        final List<Path> segments = getSegments();
+        Files.write(segments.get(segments.size() - 1), ByteBuffer.allocate(12).putInt(64).putInt(42).putInt(7).array(),
+                    StandardOpenOption.APPEND);
+        start();
+
+        assertEquals(List.of(kept.getId() + " " + START_07_03_10_00), getBooked());
+        final Booking booked = book(START_07_03_10_00.plusDays(1));
+
+        restart();
+
+        assertEquals(List.of(kept.getId() + " " + START_07_03_10_00, booked.getId() + " " + START_07_03_10_00.plusDays(1)), getBooked());
+    }
+
+    @Test
+    public void bookingsAreRestoredFromTheSnapshotAndTheLogAfterIt() throws IOException {
+        final Booking cancelledAfterSnapshot = book(ROOM_A, START_07_03_10_00);
+        final Booking snapshotted = book(ROOM_A, START_07_03_10_00.plusHours(2));
+        final Booking untouched = book(ROOM_B, START_07_03_10_00);
+        final Booking cancelledBeforeSnapshot = book(ROOM_B, START_07_03_10_00.plusHours(2));
+        cancel(ROOM_B, cancelledBeforeSnapshot);
+        final List<Path> segmentsBeforeSnapshot = getSegments();
+
+        service.getBean(BookingPersistenceService.class).snapshot();
+
+        // The segments covered by the snapshot are dropped, they are not replayed on top of it
+        segmentsBeforeSnapshot.forEach(segment -> assertFalse(Files.exists(segment), segment.toString()));
+        cancel(ROOM_A, cancelledAfterSnapshot);
+        final Booking loggedAfterSnapshot = book(ROOM_A, START_07_03_10_00.plusHours(4));
+
+        restart();
+
+        // The log after the snapshot loaded the calendar of its resource, the other one is loaded on first use
+        assertTrue(getLoadedResources().contains(ROOM_A));
+        assertFalse(getLoadedResources().contains(ROOM_B));
+        assertEquals(List.of(snapshotted.getId() + " " + START_07_03_10_00.plusHours(2),
+                             loggedAfterSnapshot.getId() + " " + START_07_03_10_00.plusHours(4)), getBooked(ROOM_A));
+        assertEquals(List.of(untouched.getId() + " " + START_07_03_10_00), getBooked(ROOM_B));
+        assertTrue(getLoadedResources().contains(ROOM_B));
+    }
+
+    private void start() throws IOException {
+        final int port = getFreePort();
+        url = "http://localhost:" + port + BOOKING_BACKEND;
+        service = new SpringApplicationBuilder(Application.class).run("--server.port=" + port,
+                                                                      "--booking.persistence.enabled=true",
+                                                                      "--booking.persistence.directory=" + directory,
+                                                                      "--bookable.frame.start=2023-07-03",
+                                                                      "--bookable.frame.end=2023-07-05");
+    }
+
+    private void restart() throws IOException {
+        service.close();
+        start();
+    }
+
+    private Booking book(final LocalDateTime start) {
+        return book(null, start);
+    }
+
+    private Booking book(final String resource, final LocalDateTime start) {
+        final ResponseEntity<Booking> response = restTemplate.postForEntity(url + "/book", getBooking(resource, start), Booking.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private void cancel(final String resource, final Booking booking) {
+        assertEquals(HttpStatus.OK, restTemplate.exchange(url + "/book/{id}?resource={resource}", HttpMethod.DELETE, null, Booking.class,
+                                                          booking.getId(), resource)
+                                                .getStatusCode());
+    }
+
+    /**
+     * The default request factory of the TestRestTemplate cannot send PATCH requests
+     */
+    private int patch(final String path) throws IOException, InterruptedException {
+        return HttpClient.newHttpClient()
+                         .send(HttpRequest.newBuilder(URI.create(url + path))
+                                          .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                                          .build(), HttpResponse.BodyHandlers.ofString())
+                         .statusCode();
+    }
+
+    /**
+     * The id and the start of every booked timeslot
+     */
+    private List<String> getBooked() {
+        return getBooked("default");
+    }
+
+    private List<String> getBooked(final String resource) {
+        return Arrays.stream(restTemplate.getForObject(url + "/booked?resource={resource}", Booking[].class, resource))
+                     .map(booking -> booking.getId() + " " + booking.getStart())
+                     .toList();
+    }
+
+    private List<String> getLoadedResources() {
+        return service.getBean(TimeSlotService.class).getCalendars().stream()
+                      .map(ResourceCalendar::getResource)
+                      .toList();
+    }
+
+    private List<Path> getSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log"))
+                        .sorted()
+                        .toList();
+        }
+    }
+
+    private static Booking getBooking(final LocalDateTime start) {
+        return getBooking(null, start);
+    }
+
+    private static Booking getBooking(final String resource, final LocalDateTime start) {
+        return Booking.builder()
+                      .client("recovery")
+                      .resource(resource)
+                      .start(start)
+                      .end(start.plusMinutes(60))
+                      .build();
+    }
+
+    private static int getFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-05-22", "bookable.frame.end=2023-05-23"})
+public class BookingTimeFormatIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String BOOKED_TIMEFRAME_URL = "/booked/timeframe?start={start}&end={end}&resource={resource}";
+
+    @Test
+    public void bookingTimesAreReadAndWrittenInTheBookingFormat() {
+        final ResponseEntity<String> response = book("{\"client\":\"format\",\"resource\":\"format\","
+                                                             + "\"start\":\"2023-05-22 10:00\",\"end\":\"2023-05-22 11:30\"}");
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"start\":\"2023-05-22 10:00\",\"end\":\"2023-05-22 11:30\""));
+
+        final Booking[] booked = restTemplate.getForObject(getURL() + BOOKED_TIMEFRAME_URL, Booking[].class,
+                                                           "2023-05-22 09:00", "2023-05-22 17:00", "format");
+        assertEquals(1, booked.length);
+        assertEquals(LocalDateTime.of(2023, 5, 22, 10, 0), booked[0].getStart());
+    }
+
+    @Test
+    public void malformedTimesAreRejected() {
+        assertEquals(HttpStatus.BAD_REQUEST, book("{\"client\":\"format\",\"resource\":\"format-malformed\","
+                                                          + "\"start\":\"2023-05-22T10:00\",\"end\":\"2023-05-22 10:30\"}").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity(getURL() + BOOKED_TIMEFRAME_URL, String.class,
+                                                                       "2023-02-30 09:00", "2023-05-22 17:00", "format-malformed")
+                                                         .getStatusCode());
+    }
+
+    private ResponseEntity<String> book(final String body) {
+        final HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.postForEntity(getURL() + BOOK_URL, new HttpEntity<>(body, requestHeaders), String.class);
+    }
+
+}
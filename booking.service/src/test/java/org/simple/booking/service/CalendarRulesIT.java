@@ -0,0 +1,93 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-05-01", "bookable.frame.end=2023-05-05",
+                                  "bookable.holidays=2023-05-01", "bookable.breaks=12:00-13:00",
+                                  "bookable.time-slot.granularity-minutes=15",
+                                  "bookable.resources.clinic.workday.hours.friday=09:00-11:00"})
+public class CalendarRulesIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String FREE_TIMEFRAME_URL = "/free/timeframe?start={start}&end={end}&resource={resource}";
+    private static final LocalDateTime START_05_01_10_00 = LocalDateTime.of(2023, 5, 1, 10, 0, 0);
+    private static final LocalDateTime START_05_02_10_15 = LocalDateTime.of(2023, 5, 2, 10, 15, 0);
+    private static final LocalDateTime START_05_02_10_20 = LocalDateTime.of(2023, 5, 2, 10, 20, 0);
+    private static final LocalDateTime START_05_02_11_30 = LocalDateTime.of(2023, 5, 2, 11, 30, 0);
+    private static final LocalDateTime START_05_05_10_30 = LocalDateTime.of(2023, 5, 5, 10, 30, 0);
+
+    @Test
+    public void bookingOnHolidayIsRejected() {
+        final ResponseEntity<String> response = book("rules", START_05_01_10_00, 30, String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid booking, booking cannot be done on a holiday: 2023-05-01.", response.getBody());
+    }
+
+    @Test
+    public void bookingDuringBreakIsRejected() {
+        final ResponseEntity<String> response = book("rules", START_05_02_11_30, 60, String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid booking, the passed booking overlaps a break, start: 12:00 end: 13:00.", response.getBody());
+    }
+
+    @Test
+    public void bookingStartsOnGranularity() {
+        assertEquals(HttpStatus.CREATED, book("rules", START_05_02_10_15, 30, Booking.class).getStatusCode());
+
+        final ResponseEntity<String> response = book("rules", START_05_02_10_20, 30, String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid booking, booked timeslot can only start from :00, :15, :30 or :45.", response.getBody());
+    }
+
+    @Test
+    public void resourceHasItsOwnWeekdayHours() {
+        final ResponseEntity<String> response = book("clinic", START_05_05_10_30, 60, String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid booking, the passed booking beyond the working hours, start: 09:00 end: 11:00.", response.getBody());
+        assertEquals(HttpStatus.CREATED, book("clinic", START_05_05_10_30, 30, Booking.class).getStatusCode());
+    }
+
+    @Test
+    public void freeTimeSlotsSkipHolidaysAndBreaks() {
+        final String freeTimeSlots = restTemplate.getForObject(getURL() + FREE_TIMEFRAME_URL, String.class,
+                                                               "2023-05-01 00:00", "2023-05-03 00:00", "free-rules");
+
+        assertFalse(freeTimeSlots.contains("2023-05-01"));
+        assertTrue(freeTimeSlots.contains("\"start\":\"2023-05-02 11:30\""));
+        assertFalse(freeTimeSlots.contains("\"start\":\"2023-05-02 12:00\""));
+        assertFalse(freeTimeSlots.contains("\"start\":\"2023-05-02 12:30\""));
+        assertTrue(freeTimeSlots.contains("\"start\":\"2023-05-02 13:00\""));
+    }
+
+    @Test
+    public void workdayStartOffTheTimeslotGridFailsTheStartup() {
+        final Exception exception = assertThrows(Exception.class, () -> new SpringApplicationBuilder(Application.class)
+                .run("--server.port=0", "--bookable.resources.late.workday.start=09:15"));
+
+        assertEquals("Invalid calendar of late, the workday start 09:15 on MONDAY is not a multiple of the minimum timeslot of 30 minutes",
+                     NestedExceptionUtils.getMostSpecificCause(exception).getMessage());
+    }
+
+    private <T> ResponseEntity<T> book(final String resource, final LocalDateTime start, final long minutes, final Class<T> type) {
+        return restTemplate.postForEntity(getURL() + BOOK_URL, Booking.builder()
+                                                                      .client("rules")
+                                                                      .resource(resource)
+                                                                      .start(start)
+                                                                      .end(start.plusMinutes(minutes))
+                                                                      .build(), type);
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-06-19", "bookable.frame.end=2023-06-21"})
+public class ClientBookingsIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String CLIENT_URL = "/client/";
+    private static final LocalDateTime START_06_19_10_00 = LocalDateTime.of(2023, 6, 19, 10, 0, 0);
+    private static final LocalDateTime START_06_20_10_00 = LocalDateTime.of(2023, 6, 20, 10, 0, 0);
+    private static final LocalDateTime START_06_21_10_00 = LocalDateTime.of(2023, 6, 21, 10, 0, 0);
+
+    @Test
+    public void bookingsOfTheClientFollowCancelAndReschedule() throws IOException, InterruptedException {
+        book("paged", START_06_19_10_00);
+        final Booking moved = book("paged", START_06_19_10_00.plusHours(2));
+        final Booking cancelled = book("paged", START_06_20_10_00);
+        book("paged", START_06_20_10_00.plusHours(2));
+        book("paged", START_06_21_10_00);
+        book("other", START_06_19_10_00.plusHours(4));
+
+        assertEquals(HttpStatus.OK, restTemplate.exchange(getURL() + BOOK_URL + "/" + cancelled.getId(), HttpMethod.DELETE, null, Booking.class)
+                                                .getStatusCode());
+        assertEquals(HttpStatus.OK.value(), patch(BOOK_URL + "/" + moved.getId() + "?start=2023-06-21%2013:00&end=2023-06-21%2014:00").statusCode());
+        // The cancelled start is booked again by another client, it is not listed for the first one
+        book("other", START_06_20_10_00);
+
+        assertEquals(List.of(START_06_19_10_00, START_06_20_10_00.plusHours(2), START_06_21_10_00, START_06_21_10_00.plusHours(3)),
+                     getStarts("paged", ""));
+        assertEquals(List.of(START_06_19_10_00.plusHours(4), START_06_20_10_00), getStarts("other", ""));
+    }
+
+    @Test
+    public void bookingsOfTheClientArePagedWithinTheTimeWindow() {
+        book("window", START_06_19_10_00.plusHours(5));
+        book("window", START_06_20_10_00.plusHours(5));
+        book("window", START_06_20_10_00.plusHours(6));
+        book("window", START_06_21_10_00.plusHours(5));
+
+        assertEquals(List.of(START_06_19_10_00.plusHours(5), START_06_20_10_00.plusHours(5)), getStarts("window", "?limit=2"));
+        assertEquals(List.of(START_06_20_10_00.plusHours(6), START_06_21_10_00.plusHours(5)),
+                     getStarts("window", "?after=2023-06-20 15:00&limit=2"));
+        assertEquals(List.of(START_06_20_10_00.plusHours(5), START_06_20_10_00.plusHours(6)),
+                     getStarts("window", "?start=2023-06-20 00:00&end=2023-06-21 00:00"));
+        assertEquals(List.of(START_06_20_10_00.plusHours(6)),
+                     getStarts("window", "?start=2023-06-20 00:00&end=2023-06-21 00:00&after=2023-06-20 15:00&limit=5"));
+        assertEquals(List.of(), getStarts("window", "?start=2023-06-21 00:00&end=2023-06-20 00:00"));
+    }
+
+    private Booking book(final String client, final LocalDateTime start) {
+        final ResponseEntity<Booking> response = restTemplate.postForEntity(getURL() + BOOK_URL, Booking.builder()
+                                                                                                       .client(client)
+                                                                                                       .start(start)
+                                                                                                       .end(start.plusMinutes(60))
+                                                                                                       .build(), Booking.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody();
+    }
+
+    /**
+     * The default request factory of the TestRestTemplate cannot send PATCH requests
+     */
+    private HttpResponse<String> patch(final String path) throws IOException, InterruptedException {
+        return HttpClient.newHttpClient()
+                         .send(HttpRequest.newBuilder(URI.create(getURL() + path))
+                                          .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                                          .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private List<LocalDateTime> getStarts(final String client, final String query) {
+        return Arrays.stream(restTemplate.getForObject(getURL() + CLIENT_URL + client + query, Booking[].class))
+                     .map(Booking::getStart)
+                     .toList();
+    }
+
+}
@@ -0,0 +1,157 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.cluster.ClusterTopology;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.TimeSlotService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stops and restarts the follower of a resource while its owner keeps registering bookings.
+ * The follower persists its replica, so it comes back with the bookings it had before it was stopped.
+ */
+public class ClusterCatchUpIT {
+
+    private static final String BOOKING_BACKEND = "/booking-backend-service";
+    private static final String NODE_1 = "node-1";
+    private static final String NODE_2 = "node-2";
+    private static final LocalDateTime START_07_31_10_00 = LocalDateTime.of(2023, 7, 31, 10, 0, 0);
+
+    private final TestRestTemplate restTemplate = new TestRestTemplate();
+    private ConfigurableApplicationContext node1;
+    private ConfigurableApplicationContext node2;
+    private int port2;
+    private String node1Url;
+    private String nodes;
+    private Path directory;
+    private String resource;
+
+    @BeforeEach
+    public void startNodes() throws IOException {
+        final int port1 = getFreePort();
+        port2 = getFreePort();
+        node1Url = "http://localhost:" + port1 + BOOKING_BACKEND;
+        nodes = NODE_1 + "=" + node1Url + "," + NODE_2 + "=http://localhost:" + port2 + BOOKING_BACKEND;
+        directory = Path.of("target", "cluster-it", UUID.randomUUID().toString());
+        node1 = startNode(NODE_1, port1);
+        node2 = startNode(NODE_2, port2);
+        resource = getResourceOwnedBy(NODE_1);
+    }
+
+    @AfterEach
+    public void stopNodes() {
+        node1.close();
+        node2.close();
+    }
+
+    @Test
+    public void recordsQueuedWhileTheFollowerIsDownAreReplicatedWhenItIsBack() throws InterruptedException {
+        final Booking cancelled = book(START_07_31_10_00);
+        book(START_07_31_10_00.plusHours(2));
+        awaitReplica();
+
+        node2.close();
+        cancel(cancelled);
+        book(START_07_31_10_00.plusHours(4));
+        node2 = startNode(NODE_2, port2);
+
+        awaitReplica();
+    }
+
+    @Test
+    public void followerIsResyncedAfterTheQueueOverflowed() throws InterruptedException {
+        final Booking cancelled = book(START_07_31_10_00);
+        book(START_07_31_10_00.plusHours(2));
+        awaitReplica();
+
+        node2.close();
+        cancel(cancelled);
+        IntStream.range(0, 5).forEach(day -> book(START_07_31_10_00.plusDays(1).plusHours(day)));
+        node2 = startNode(NODE_2, port2);
+
+        awaitReplica();
+    }
+
+    private ConfigurableApplicationContext startNode(final String nodeId, final int port) {
+        return new SpringApplicationBuilder(Application.class).run("--server.port=" + port,
+                                                                   "--booking.cluster.enabled=true",
+                                                                   "--booking.cluster.node-id=" + nodeId,
+                                                                   "--booking.cluster.nodes=" + nodes,
+                                                                   "--booking.cluster.replication.queue-size=3",
+                                                                   "--booking.cluster.replication.retry-millis=100",
+                                                                   "--booking.persistence.enabled=" + NODE_2.equals(nodeId),
+                                                                   "--booking.persistence.directory=" + directory,
+                                                                   "--bookable.frame.start=2023-07-31",
+                                                                   "--bookable.frame.end=2023-08-01");
+    }
+
+    private Booking book(final LocalDateTime start) {
+        final ResponseEntity<Booking> response = restTemplate.postForEntity(node1Url + "/v1/book", Booking.builder()
+                                                                                                         .client("catch-up")
+                                                                                                         .resource(resource)
+                                                                                                         .start(start)
+                                                                                                         .end(start.plusMinutes(60))
+                                                                                                         .build(), Booking.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private void cancel(final Booking booking) {
+        assertEquals(HttpStatus.OK, restTemplate.exchange(node1Url + "/v1/book/{id}?resource={resource}", HttpMethod.DELETE, null, Booking.class,
+                                                          booking.getId(), resource)
+                                                .getStatusCode());
+    }
+
+    /**
+     * Waits until the follower stores the same bookings as the owner
+     */
+    private void awaitReplica() throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && !getBooked(node1).equals(getBooked(node2)); attempt++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        assertEquals(getBooked(node1), getBooked(node2));
+    }
+
+    /**
+     * The id and the start of every booking of the resource on the node
+     */
+    private List<String> getBooked(final ConfigurableApplicationContext node) {
+        return node.getBean(TimeSlotService.class).getStoredCalendar(resource).getTimeSlotStore().stream()
+                   .map(booking -> booking.getId() + " " + booking.getStart())
+                   .toList();
+    }
+
+    private String getResourceOwnedBy(final String nodeId) {
+        final ClusterTopology clusterTopology = node1.getBean(ClusterTopology.class);
+        return IntStream.range(0, 1000)
+                        .mapToObj(i -> "room-" + i)
+                        .filter(name -> nodeId.equals(clusterTopology.getPlacement(name).owner()))
+                        .findFirst()
+                        .orElseThrow();
+    }
+
+    private static int getFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.cluster.ClusterTopology;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.TimeSlotService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs a cluster of two nodes, the nodes have to know the ports of each other before they start,
+ * so they are started here on free ports instead of by the Spring test context
+ */
+public class ClusterIT {
+
+    private static final String BOOKING_BACKEND = "/booking-backend-service";
+    private static final String NODE_1 = "node-1";
+    private static final String NODE_2 = "node-2";
+    private static final LocalDateTime START_04_10_10_00 = LocalDateTime.of(2023, 4, 10, 10, 0, 0);
+
+    private static ConfigurableApplicationContext node1;
+    private static ConfigurableApplicationContext node2;
+    private static String node1Url;
+    private static String node2Url;
+
+    private final TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @BeforeAll
+    public static void startNodes() throws IOException {
+        final int port1 = getFreePort();
+        final int port2 = getFreePort();
+        node1Url = "http://localhost:" + port1 + BOOKING_BACKEND;
+        node2Url = "http://localhost:" + port2 + BOOKING_BACKEND;
+        final String nodes = NODE_1 + "=" + node1Url + "," + NODE_2 + "=" + node2Url;
+        node1 = startNode(NODE_1, port1, nodes);
+        node2 = startNode(NODE_2, port2, nodes);
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        node1.close();
+        node2.close();
+    }
+
+    @Test
+    public void bookingIsRegisteredByTheOwnerAndReplicatedToTheFollower() throws InterruptedException {
+        final String resource = getResourceOwnedBy(NODE_2, 0);
+
+        final ResponseEntity<Booking> response = restTemplate.postForEntity(node1Url + "/v1/book",
+                                                                            getBooking(resource, START_04_10_10_00, START_04_10_10_00.plusMinutes(60)),
+                                                                            Booking.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, getStoreSize(node2, resource));
+        // In a cluster of two nodes the other node follows every resource, it is replicated in the background
+        awaitStoreSize(node1, resource, 1);
+
+        final ResponseEntity<String> overlapping = restTemplate.postForEntity(node2Url + "/v1/book",
+                                                                              getBooking(resource, START_04_10_10_00.plusMinutes(30), START_04_10_10_00.plusMinutes(90)),
+                                                                              String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, overlapping.getStatusCode());
+        assertEquals("Invalid request, the passed timeslot overlaps with a booked one: 2023-04-10T10:00 end: 2023-04-10T11:00", overlapping.getBody());
+
+        final Booking[] bookings = restTemplate.getForObject(node1Url + "/v1/booked?resource={resource}", Booking[].class, resource);
+        assertEquals(1, bookings.length);
+        assertEquals(response.getBody().getId(), bookings[0].getId());
+    }
+
+    @Test
+    public void batchAcrossNodesIsRejected() {
+        final String resource1 = getResourceOwnedBy(NODE_1, 1);
+        final String resource2 = getResourceOwnedBy(NODE_2, 1);
+
+        final ResponseEntity<String> response = restTemplate.postForEntity(node1Url + "/v1/book/batch",
+                                                                           List.of(getBooking(resource1, START_04_10_10_00, START_04_10_10_00.plusMinutes(60)),
+                                                                                   getBooking(resource2, START_04_10_10_00, START_04_10_10_00.plusMinutes(60))),
+                                                                           String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(0, getStoreSize(node1, resource1));
+        assertEquals(0, getStoreSize(node2, resource2));
+    }
+
+    private static ConfigurableApplicationContext startNode(final String nodeId, final int port, final String nodes) {
+        return new SpringApplicationBuilder(Application.class).run("--server.port=" + port,
+                                                                   "--booking.cluster.enabled=true",
+                                                                   "--booking.cluster.node-id=" + nodeId,
+                                                                   "--booking.cluster.nodes=" + nodes,
+                                                                   "--bookable.frame.start=2023-04-10",
+                                                                   "--bookable.frame.end=2023-04-12");
+    }
+
+    private static int getFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Returns the index-th of the resources placed on the given node
+     */
+    private static String getResourceOwnedBy(final String nodeId, final int index) {
+        final ClusterTopology clusterTopology = node1.getBean(ClusterTopology.class);
+        return IntStream.range(0, 1000)
+                        .mapToObj(i -> "room-" + i)
+                        .filter(resource -> nodeId.equals(clusterTopology.getPlacement(resource).owner()))
+                        .skip(index)
+                        .findFirst()
+                        .orElseThrow();
+    }
+
+    private static int getStoreSize(final ConfigurableApplicationContext node, final String resource) {
+        return node.getBean(TimeSlotService.class).getCalendar(resource).getTimeSlotStore().size();
+    }
+
+    private static void awaitStoreSize(final ConfigurableApplicationContext node, final String resource, final int size) throws InterruptedException {
+        for (int attempt = 0; attempt < 50 && getStoreSize(node, resource) != size; attempt++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        assertEquals(size, getStoreSize(node, resource));
+    }
+
+    private static Booking getBooking(final String resource, final LocalDateTime start, final LocalDateTime end) {
+        return Booking.builder()
+                      .client("cluster")
+                      .resource(resource)
+                      .start(start)
+                      .end(end)
+                      .build();
+    }
+
+}
@@ -0,0 +1,57 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.cluster.ClusterReplicator;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.persistence.BookingPersistenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The only node of the cluster is not on the loopback address, so the test client is not a node
+ */
+@TestPropertySource(properties = {"bookable.frame.start=2023-07-24", "bookable.frame.end=2023-07-25",
+                                  "booking.cluster.enabled=true", "booking.cluster.node-id=node-1",
+                                  "booking.cluster.nodes=node-1=http://192.0.2.1:8080/booking-backend-service"})
+public class ClusterReplicationIT extends AbstractBookingServiceIT {
+
+    private static final String REPLICATION_URL = "http://localhost:{port}/booking-backend-service" + ClusterReplicator.REPLICATION_PATH;
+    private static final LocalDateTime START_07_24_10_00 = LocalDateTime.of(2023, 7, 24, 10, 0, 0);
+
+    @Autowired
+    private BookingPersistenceService bookingPersistenceService;
+
+    @Test
+    public void replicatedRecordsOfANonNodeAreRefused() {
+        final ByteBuffer record = bookingPersistenceService.encodeBooked(Booking.builder()
+                                                                                .id(UUID.randomUUID().toString())
+                                                                                .client("intruder")
+                                                                                .resource("default")
+                                                                                .start(START_07_24_10_00)
+                                                                                .end(START_07_24_10_00.plusMinutes(60))
+                                                                                .build());
+        final byte[] records = Arrays.copyOfRange(record.array(), record.arrayOffset() + record.position(),
+                                                  record.arrayOffset() + record.limit());
+        final HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+
+        final ResponseEntity<String> response = restTemplate.postForEntity(REPLICATION_URL, new HttpEntity<>(records, requestHeaders),
+                                                                           String.class, port);
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertEquals(0, restTemplate.getForObject(getURL() + "/booked", Booking[].class).length);
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.simple.booking.service.service.TimeSlotService;
+import org.simple.booking.service.service.store.FreeSlotCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-03-27", "bookable.frame.end=2023-03-28",
+                                  "bookable.free-slot-cache.max-days=1"})
+public class FreeSlotCacheIT extends AbstractBookingServiceIT {
+
+    private static final String FREE_URL = "/free";
+    private static final String FREE_TIMEFRAME_URL = "/free/timeframe?start={start}&end={end}";
+    private static final LocalDateTime START_03_27_10_00 = LocalDateTime.of(2023, 3, 27, 10, 0, 0);
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+
+    @Test
+    public void cachedFreeTimeSlotsAreInvalidatedByBooking() {
+        final FreeSlotCache cache = timeSlotService.getFreeSlotCache();
+        final String timeframe = restTemplate.getForObject(getURL() + FREE_TIMEFRAME_URL, String.class, "2023-03-27 09:00", "2023-03-27 17:00");
+        final long hits = cache.getHits();
+
+        assertEquals(timeframe, restTemplate.getForObject(getURL() + FREE_TIMEFRAME_URL, String.class, "2023-03-27 09:00", "2023-03-27 17:00"));
+        assertEquals(hits + 1, cache.getHits());
+        assertTrue(timeframe.contains("\"start\":\"2023-03-27 10:00\""));
+
+        final ResponseEntity<Booking> response = restTemplate.postForEntity(getURL() + "/book", Booking.builder()
+                                                                                                       .client("cache")
+                                                                                                       .start(START_03_27_10_00)
+                                                                                                       .end(START_03_27_10_00.plusMinutes(60))
+                                                                                                       .build(), Booking.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+
+        final long misses = cache.getMisses();
+        final String updated = restTemplate.getForObject(getURL() + FREE_TIMEFRAME_URL, String.class, "2023-03-27 09:00", "2023-03-27 17:00");
+        assertEquals(misses + 1, cache.getMisses());
+        assertFalse(updated.contains("\"start\":\"2023-03-27 10:00\""));
+        assertFalse(updated.contains("\"start\":\"2023-03-27 10:30\""));
+        assertTrue(updated.contains("\"start\":\"2023-03-27 11:00\""));
+    }
+
+    @Test
+    public void leastRecentlyUsedDayIsEvicted() {
+        final FreeSlotCache cache = timeSlotService.getFreeSlotCache();
+        final String freeTimeSlots = restTemplate.getForObject(getURL() + FREE_URL, String.class);
+        final long evictions = cache.getEvictions();
+
+        // Two bookable days share a cache of a single day, so every day evicts the other one
+        assertEquals(freeTimeSlots, restTemplate.getForObject(getURL() + FREE_URL, String.class));
+        assertEquals(evictions + 2, cache.getEvictions());
+        assertEquals(1, cache.size());
+    }
+
+}
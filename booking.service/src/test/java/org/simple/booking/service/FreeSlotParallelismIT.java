@@ -0,0 +1,115 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Computes the free timeslots of a long frame by the calling thread and by a pool of 4 threads,
+ * the same bookings are registered in both services, so both have to list the same timeslots in the same order
+ */
+public class FreeSlotParallelismIT {
+
+    private static final String BOOKING_BACKEND = "/booking-backend-service/v1";
+    private static final String FREE_URL = "/free";
+    private static final String FREE_TIMEFRAME_URL = "/free/timeframe?start={start}&end={end}";
+    private static final LocalDateTime START_2024_01_01_09_00 = LocalDateTime.of(2024, 1, 1, 9, 0, 0);
+    private static final int FRAME_DAYS = 365;
+
+    private static ConfigurableApplicationContext sequential;
+    private static ConfigurableApplicationContext parallel;
+    private static String sequentialUrl;
+    private static String parallelUrl;
+
+    private final TestRestTemplate restTemplate = new TestRestTemplate();
+
+    @BeforeAll
+    public static void startServices() throws IOException {
+        final int sequentialPort = getFreePort();
+        final int parallelPort = getFreePort();
+        sequentialUrl = "http://localhost:" + sequentialPort + BOOKING_BACKEND;
+        parallelUrl = "http://localhost:" + parallelPort + BOOKING_BACKEND;
+        sequential = startService(sequentialPort, 1);
+        parallel = startService(parallelPort, 4);
+
+        final TestRestTemplate restTemplate = new TestRestTemplate();
+        final Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            final LocalDateTime start = START_2024_01_01_09_00.plusDays(random.nextInt(FRAME_DAYS)).plusMinutes(30L * random.nextInt(14));
+            final Booking booking = Booking.builder()
+                                           .client("parallel")
+                                           .start(start)
+                                           .end(start.plusMinutes(30L * (1 + random.nextInt(2))))
+                                           .build();
+            final HttpStatus status = HttpStatus.valueOf(restTemplate.postForEntity(sequentialUrl + "/book", booking, String.class)
+                                                                     .getStatusCode().value());
+            assertEquals(status, HttpStatus.valueOf(restTemplate.postForEntity(parallelUrl + "/book", booking, String.class)
+                                                                .getStatusCode().value()));
+        }
+    }
+
+    @AfterAll
+    public static void stopServices() {
+        sequential.close();
+        parallel.close();
+    }
+
+    @Test
+    public void parallelFreeTimeSlotsMatchTheSequentialOnes() {
+        final List<String> timeSlots = getTimeSlots(sequentialUrl, FREE_URL);
+
+        assertTrue(timeSlots.size() > 1000);
+        assertEquals(timeSlots, getTimeSlots(parallelUrl, FREE_URL));
+    }
+
+    @Test
+    public void parallelFreeTimeSlotsOfATimeframeMatchTheSequentialOnes() {
+        final List<String> timeSlots = getTimeSlots(sequentialUrl, FREE_TIMEFRAME_URL, "2024-02-01 00:00", "2024-11-30 00:00");
+
+        assertTrue(timeSlots.size() > 1000);
+        assertEquals(timeSlots, getTimeSlots(parallelUrl, FREE_TIMEFRAME_URL, "2024-02-01 00:00", "2024-11-30 00:00"));
+    }
+
+    /**
+     * The start and the end of every free timeslot, in the order of the response
+     */
+    private List<String> getTimeSlots(final String url, final String path, final Object... variables) {
+        return Arrays.stream(restTemplate.getForObject(url + path, Booking[].class, variables))
+                     .map(timeSlot -> timeSlot.getStart() + " " + timeSlot.getEnd())
+                     .toList();
+    }
+
+    /**
+     * Chunks of 8 days, so both the whole frame and the timeframe are split over every thread of the pool
+     */
+    private static ConfigurableApplicationContext startService(final int port, final int parallelism) {
+        return new SpringApplicationBuilder(Application.class).run("--server.port=" + port,
+                                                                   "--bookable.frame.start=2024-01-01",
+                                                                   "--bookable.frame.end=2024-12-30",
+                                                                   "--bookable.free-slot-cache.max-days=0",
+                                                                   "--bookable.free-slot-parallelism=" + parallelism,
+                                                                   "--bookable.free-slot-min-days-per-task=8");
+    }
+
+    private static int getFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
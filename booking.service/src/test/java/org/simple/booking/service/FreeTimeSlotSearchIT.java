@@ -0,0 +1,78 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-05-08", "bookable.frame.end=2023-05-09"})
+public class FreeTimeSlotSearchIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String NEXT_URL = "/free/next?duration={duration}&resource={resource}";
+    private static final String CANDIDATES_URL = "/free/candidates?duration={duration}&limit={limit}&resource={resource}";
+    private static final String LONGEST_URL = "/free/longest?start={start}&end={end}&resource={resource}";
+    private static final LocalDateTime START_05_08_09_00 = LocalDateTime.of(2023, 5, 8, 9, 0, 0);
+    private static final LocalDateTime START_05_08_11_30 = LocalDateTime.of(2023, 5, 8, 11, 30, 0);
+    private static final LocalDateTime START_05_08_14_30 = LocalDateTime.of(2023, 5, 8, 14, 30, 0);
+
+    @Test
+    public void nextFreeTimeSlotSkipsTheShorterGaps() {
+        book("search", START_05_08_09_00, 90);
+        book("search", START_05_08_11_30, 180);
+
+        final Booking next = restTemplate.getForObject(getURL() + NEXT_URL, Booking.class, 60, "search");
+        assertEquals(LocalDateTime.of(2023, 5, 8, 10, 30), next.getStart());
+        assertEquals(LocalDateTime.of(2023, 5, 8, 11, 30), next.getEnd());
+
+        final Booking longer = restTemplate.getForObject(getURL() + NEXT_URL, Booking.class, 120, "search");
+        assertEquals(START_05_08_14_30, longer.getStart());
+    }
+
+    @Test
+    public void candidatesFollowEveryBookableStart() {
+        book("candidates", START_05_08_09_00, 90);
+
+        final Booking[] candidates = restTemplate.getForObject(getURL() + CANDIDATES_URL, Booking[].class, 60, 3, "candidates");
+        assertEquals(3, candidates.length);
+        assertEquals(LocalDateTime.of(2023, 5, 8, 10, 30), candidates[0].getStart());
+        assertEquals(LocalDateTime.of(2023, 5, 8, 11, 0), candidates[1].getStart());
+        assertEquals(LocalDateTime.of(2023, 5, 8, 11, 30), candidates[2].getStart());
+    }
+
+    @Test
+    public void longestFreeGapOfEveryDay() {
+        book("longest", START_05_08_11_30, 180);
+
+        final Booking[] gaps = restTemplate.getForObject(getURL() + LONGEST_URL, Booking[].class, "2023-05-08", "2023-05-09", "longest");
+        assertEquals(2, gaps.length);
+        assertEquals(START_05_08_09_00, gaps[0].getStart());
+        assertEquals(START_05_08_11_30, gaps[0].getEnd());
+        assertEquals(LocalDateTime.of(2023, 5, 9, 9, 0), gaps[1].getStart());
+        assertEquals(LocalDateTime.of(2023, 5, 9, 17, 0), gaps[1].getEnd());
+    }
+
+    @Test
+    public void invalidDurationIsRejected() {
+        final ResponseEntity<String> response = restTemplate.getForEntity(getURL() + NEXT_URL, String.class, 45, "search-invalid");
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid booking, the timeslot length can only be integer multiples of the minimum bookable timeslot: 30 minutes.",
+                     response.getBody());
+    }
+
+    private void book(final String resource, final LocalDateTime start, final long minutes) {
+        final ResponseEntity<Booking> response = restTemplate.postForEntity(getURL() + BOOK_URL, Booking.builder()
+                                                                                                       .client("search")
+                                                                                                       .resource(resource)
+                                                                                                       .start(start)
+                                                                                                       .end(start.plusMinutes(minutes))
+                                                                                                       .build(), Booking.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
+}
@@ -0,0 +1,70 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-05-15", "bookable.frame.end=2023-05-16", "booking.idempotency.max-keys=2"})
+public class IdempotencyIT extends AbstractBookingServiceIT {
+
+    private static final String BOOK_URL = "/book";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final LocalDateTime START_05_15_10_00 = LocalDateTime.of(2023, 5, 15, 10, 0, 0);
+    private static final LocalDateTime START_05_15_12_00 = LocalDateTime.of(2023, 5, 15, 12, 0, 0);
+    private static final LocalDateTime START_05_16_10_00 = LocalDateTime.of(2023, 5, 16, 10, 0, 0);
+
+    @Test
+    public void retryReturnsTheRegisteredBooking() {
+        final ResponseEntity<Booking> response = book("retry-key", START_05_15_10_00, Booking.class);
+        final ResponseEntity<Booking> retried = book("retry-key", START_05_15_10_00, Booking.class);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+        assertEquals(response.getBody().getId(), retried.getBody().getId());
+    }
+
+    @Test
+    public void keyOfAnotherBookingIsRejected() {
+        assertEquals(HttpStatus.CREATED, book("reused-key", START_05_15_12_00, Booking.class).getStatusCode());
+
+        final ResponseEntity<String> response = book("reused-key", START_05_15_12_00.plusHours(1), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid request, the idempotency key was already used for another booking: reused-key", response.getBody());
+    }
+
+    @Test
+    public void failedRegistrationsDoNotEvictTheRegisteredKeys() {
+        final ResponseEntity<Booking> response = book("kept-key", START_05_16_10_00, Booking.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        // Every failed registration releases its key, so it does not count toward the 2 kept keys
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.BAD_REQUEST, book("overlapping-key-" + i, START_05_16_10_00, String.class).getStatusCode());
+        }
+
+        final ResponseEntity<Booking> retried = book("kept-key", START_05_16_10_00, Booking.class);
+        assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+        assertEquals(response.getBody().getId(), retried.getBody().getId());
+    }
+
+    private <T> ResponseEntity<T> book(final String key, final LocalDateTime start, final Class<T> type) {
+        final HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setContentType(MediaType.APPLICATION_JSON);
+        requestHeaders.set(IDEMPOTENCY_KEY, key);
+        return restTemplate.postForEntity(getURL() + BOOK_URL, new HttpEntity<>(Booking.builder()
+                                                                                       .client("idempotent")
+                                                                                       .resource("idempotency")
+                                                                                       .start(start)
+                                                                                       .end(start.plusMinutes(30))
+                                                                                       .build(), requestHeaders), type);
+    }
+
+}
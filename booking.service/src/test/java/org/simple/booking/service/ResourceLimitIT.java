@@ -0,0 +1,36 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@TestPropertySource(properties = {"bookable.frame.start=2023-06-05", "bookable.frame.end=2023-06-06",
+                                  "bookable.max-unconfigured-resources=2",
+                                  "bookable.resources.room-1.workday.start=10:00"})
+public class ResourceLimitIT extends AbstractBookingServiceIT {
+
+    private static final String FREE_URL = "/free?resource={resource}";
+
+    @Test
+    public void unconfiguredResourcesAreLimited() {
+        assertEquals(HttpStatus.OK, getFree("adhoc-1").getStatusCode());
+        assertEquals(HttpStatus.OK, getFree("adhoc-2").getStatusCode());
+        assertEquals(HttpStatus.OK, getFree("adhoc-1").getStatusCode());
+
+        final ResponseEntity<String> response = getFree("adhoc-3");
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid request, the resource is not configured and the number of unconfigured resources reached its limit: 2",
+                     response.getBody());
+
+        assertEquals(HttpStatus.OK, getFree("room-1").getStatusCode());
+        assertEquals(HttpStatus.OK, getFree("default").getStatusCode());
+    }
+
+    private ResponseEntity<String> getFree(final String resource) {
+        return restTemplate.getForEntity(getURL() + FREE_URL, String.class, resource);
+    }
+
+}
@@ -0,0 +1,41 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * No proxy is trusted, so the test client is identified by the loopback address whatever client id it sends
+ */
+@TestPropertySource(properties = {"bookable.frame.start=2023-08-07", "bookable.frame.end=2023-08-08",
+        "booking.rate-limit.enabled=true", "booking.rate-limit.free-slots.requests-per-second=0.01",
+        "booking.rate-limit.free-slots.burst=2"})
+public class ThrottlingClientIdIT extends AbstractBookingServiceIT {
+
+    private static final String FREE_URL = "/free?resource=throttling";
+    private static final String CLIENT_ID = "X-Client-Id";
+
+    @Test
+    public void rotatingClientIdsShareTheBucketOfTheAddress() {
+        assertEquals(HttpStatus.OK, get("rotating-1").getStatusCode());
+        assertEquals(HttpStatus.OK, get("rotating-2").getStatusCode());
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, get("rotating-3").getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, get(null).getStatusCode());
+    }
+
+    private ResponseEntity<String> get(final String client) {
+        final HttpHeaders requestHeaders = new HttpHeaders();
+        if (client != null) {
+            requestHeaders.set(CLIENT_ID, client);
+        }
+        return restTemplate.exchange(getURL() + FREE_URL, HttpMethod.GET, new HttpEntity<>(requestHeaders), String.class);
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.simple.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.simple.booking.service.domain.Booking;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * The test client connects from the loopback address, which is trusted as a proxy, so its client ids tell apart the clients
+ */
+@TestPropertySource(properties = {"bookable.frame.start=2023-05-29", "bookable.frame.end=2023-05-30",
+        "booking.rate-limit.enabled=true", "booking.rate-limit.trusted-proxies=127.0.0.1,0:0:0:0:0:0:0:1", "booking.rate-limit.free-slots.requests-per-second=0.01",
+        "booking.rate-limit.free-slots.burst=2", "booking.rate-limit.booking.requests-per-second=0.01",
+        "booking.rate-limit.booking.burst=3"})
+public class ThrottlingIT extends AbstractBookingServiceIT {
+
+    private static final String FREE_URL = "/free?resource=throttling";
+    private static final String BOOKED_URL = "/booked?resource=throttling";
+    private static final String BOOK_URL = "/book";
+    private static final String BATCH_URL = "/book/batch";
+    private static final String CLIENT_ID = "X-Client-Id";
+    private static final String FORWARDED_BY = "X-Booking-Forwarded-By";
+    private static final LocalDateTime START_05_29_10_00 = LocalDateTime.of(2023, 5, 29, 10, 0, 0);
+
+    @Test
+    public void freeTimeSlotQueriesAboveTheBurstAreRejected() {
+        assertEquals(HttpStatus.OK, get(FREE_URL, "burst").getStatusCode());
+        assertEquals(HttpStatus.OK, get(FREE_URL, "burst").getStatusCode());
+
+        final ResponseEntity<String> response = get(FREE_URL, "burst");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("100", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Too many requests, the rate limit of the client is exceeded, retry after seconds: 100", response.getBody());
+    }
+
+    @Test
+    public void clientsAndRequestClassesAreLimitedSeparately() {
+        get(FREE_URL, "separate");
+        get(FREE_URL, "separate");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, get(FREE_URL, "separate").getStatusCode());
+
+        assertEquals(HttpStatus.OK, get(BOOKED_URL, "separate").getStatusCode());
+        assertEquals(HttpStatus.OK, get(FREE_URL, "another").getStatusCode());
+    }
+
+    @Test
+    public void forwardedHeaderOfAnOutsideClientIsLimited() {
+        final HttpHeaders requestHeaders = getHeaders("forwarding");
+        requestHeaders.set(FORWARDED_BY, "node-2");
+        final HttpEntity<Void> request = new HttpEntity<>(requestHeaders);
+
+        assertEquals(HttpStatus.OK, restTemplate.exchange(getURL() + FREE_URL, HttpMethod.GET, request, String.class).getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.exchange(getURL() + FREE_URL, HttpMethod.GET, request, String.class).getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, restTemplate.exchange(getURL() + FREE_URL, HttpMethod.GET, request, String.class).getStatusCode());
+    }
+
+    @Test
+    public void batchCostsATokenForEveryBooking() {
+        final List<Booking> batch = List.of(getBooking(START_05_29_10_00), getBooking(START_05_29_10_00.plusHours(1)),
+                                            getBooking(START_05_29_10_00.plusHours(2)));
+
+        final ResponseEntity<String> response = restTemplate.exchange(getURL() + BATCH_URL, HttpMethod.POST,
+                                                                      new HttpEntity<>(batch, getHeaders("batch")), String.class);
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, restTemplate.exchange(getURL() + BOOK_URL, HttpMethod.POST,
+                                                                         new HttpEntity<>(getBooking(START_05_29_10_00.plusHours(3)),
+                                                                                          getHeaders("batch")),
+                                                                         String.class).getStatusCode());
+    }
+
+    private ResponseEntity<String> get(final String url, final String client) {
+        return restTemplate.exchange(getURL() + url, HttpMethod.GET, new HttpEntity<>(getHeaders(client)), String.class);
+    }
+
+    private static HttpHeaders getHeaders(final String client) {
+        final HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.set(CLIENT_ID, client);
+        return requestHeaders;
+    }
+
+    private static Booking getBooking(final LocalDateTime start) {
+        return Booking.builder()
+                      .client("batch")
+                      .start(start)
+                      .end(start.plusMinutes(60))
+                      .build();
+    }
+
+}